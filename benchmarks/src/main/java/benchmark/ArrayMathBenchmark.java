@@ -0,0 +1,104 @@
+package benchmark;
+
+
+import impl.MyArrayMathImpl;
+import impl.UTIL;
+import interfaces.ArrayMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Benchmarks the MyArrayMathImpl operations on arrays from UTIL.getFilledArray.
+ * minDifferences and getPercentileRange reorder their input, so they work on copies;
+ * the copying is part of the score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ArrayMathBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private final ArrayMath arrayMath = new MyArrayMathImpl();
+    private final MyArrayMathImpl myMath = new MyArrayMathImpl(); //Also reaches the methods outside ArrayMath
+    private int[] array;
+    private int[] shuffled;
+    private int[] other;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        array = UTIL.getFilledArray(size);
+        other = UTIL.getFilledArray(size);
+
+        //Same collection in a different order
+        shuffled = array.clone();
+        Random random = new Random(42);
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = temp;
+        }
+    }
+
+    @Benchmark
+    public boolean isSameCollection() {
+        return arrayMath.isSameCollection(array, shuffled);
+    }
+
+    @Benchmark
+    public boolean isSameCollectionDifferent() {
+        return arrayMath.isSameCollection(array, other);
+    }
+
+    @Benchmark
+    public boolean isSameCollectionByTables() {
+        return myMath.isSameCollectionByTables(array, shuffled);
+    }
+
+    @Benchmark
+    public boolean isSameCollectionByTablesDifferent() {
+        return myMath.isSameCollectionByTables(array, other);
+    }
+
+    @Benchmark
+    public boolean isSameCollectionParallel() {
+        return myMath.isSameCollectionParallel(array, shuffled);
+    }
+
+    @Benchmark
+    public boolean isSameCollectionParallelDifferent() {
+        return myMath.isSameCollectionParallel(array, other);
+    }
+
+    @Benchmark
+    public int minDifferences() {
+        return arrayMath.minDifferences(array.clone(), other.clone());
+    }
+
+    @Benchmark
+    public int[] getPercentileRange() {
+        return arrayMath.getPercentileRange(array.clone(), 20, 95);
+    }
+}
@@ -0,0 +1,129 @@
+package benchmark;
+
+
+import impl.AsyncMyMap;
+import impl.MyHashTableImpl;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Closed-loop load generator comparing AsyncMyMap against a MyHashTableImpl
+ * behind one lock. Every client thread looks up random keys, one at a time,
+ * and records the latency of every call. Prints ops/sec, p50 and p99.
+ *
+ * Arguments: [clients, default 64] [seconds per run, default 10] [keys, default 1000000]
+ */
+public class AsyncLoadGenerator {
+
+    private static final double LOAD_FACTOR = 0.5;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int SAMPLES_PER_CLIENT = 1 << 20; //Later calls are counted but not sampled
+
+    /**
+     * Runs both variants and prints their results.
+     *
+     * @param args clients, seconds per run and number of keys
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws InterruptedException {
+
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+
+        Integer[] keys = new Integer[size];
+        for (int i = 0; i < size; i++)
+            keys[i] = i;
+
+        MyHashTableImpl<Integer, Integer> locked = new MyHashTableImpl<>(LOAD_FACTOR, size);
+        locked.insertAll(keys, keys);
+        run("locked", clients, seconds, key -> {
+            synchronized (locked) {
+                return locked.contains(key);
+            }
+        }, size);
+
+        MyHashTableImpl<Integer, Integer> owned = new MyHashTableImpl<>(LOAD_FACTOR, size);
+        owned.insertAll(keys, keys);
+        AsyncMyMap<Integer, Integer> async = new AsyncMyMap<>(owned, QUEUE_CAPACITY);
+        run("async", clients, seconds, key -> async.contains(key).join(), size);
+        async.close();
+    }
+
+    /**
+     * Runs the clients against one variant, first for a warm-up of the same
+     * length, and prints the throughput and latency percentiles.
+     *
+     * */
+    private static void run(String name, int clients, int seconds, IntFunction<Integer> lookup, int size)
+            throws InterruptedException {
+
+        measure(clients, seconds, lookup, size); //Warm-up
+        long[][] samples = new long[clients][];
+        long[] counts = new long[clients];
+        long elapsed = measure(clients, seconds, lookup, size, samples, counts);
+
+        long operations = Arrays.stream(counts).sum();
+        long[] latencies = Arrays.stream(samples).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(latencies);
+
+        System.out.printf("%-8s clients=%d ops/sec=%,.0f p50=%,dns p99=%,dns%n", name, clients,
+                operations / (elapsed / 1e9), percentile(latencies, 0.50), percentile(latencies, 0.99));
+    }
+
+    private static void measure(int clients, int seconds, IntFunction<Integer> lookup, int size)
+            throws InterruptedException {
+        measure(clients, seconds, lookup, size, new long[clients][], new long[clients]);
+    }
+
+    /**
+     * Starts the clients, lets them run for the given time and waits for them.
+     *
+     * @return elapsed nanoseconds.
+     * */
+    private static long measure(int clients, int seconds, IntFunction<Integer> lookup, int size,
+                                long[][] samples, long[] counts) throws InterruptedException {
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        Thread[] threads = new Thread[clients];
+
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            threads[c] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] latencies = new long[SAMPLES_PER_CLIENT];
+                long count = 0;
+                long now = System.nanoTime();
+                while (now < deadline) {
+                    Integer value = lookup.apply(random.nextInt(size));
+                    long end = System.nanoTime();
+                    if (value == null)
+                        throw new IllegalStateException("A loaded key is missing.");
+                    if (count < SAMPLES_PER_CLIENT)
+                        latencies[(int) count] = end - now;
+                    count++;
+                    now = end;
+                }
+                samples[client] = Arrays.copyOf(latencies, (int) Math.min(count, SAMPLES_PER_CLIENT));
+                counts[client] = count;
+            });
+            threads[c].start();
+        }
+
+        for (Thread thread : threads)
+            thread.join();
+        return System.nanoTime() - start;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, (long) (fraction * sorted.length))];
+    }
+}
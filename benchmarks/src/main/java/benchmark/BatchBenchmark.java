@@ -0,0 +1,90 @@
+package benchmark;
+
+
+import impl.MyHashTableImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Compares loading and looking up MyHashTableImpl key by key against
+ * the presizing constructor and the insertAll/containsAll batch operations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    private static final double LOAD_FACTOR = 0.5;
+
+    @Param({"Integer", "String"})
+    public String keyType;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    private Object[] keys;
+    private Object[] out;
+    private MyHashTableImpl<Object, Object> filled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = MyHashTableBenchmark.generateKeys(keyType, 0, size);
+        out = new Object[size];
+        filled = new MyHashTableImpl<>(LOAD_FACTOR, size);
+        filled.insertAll(keys, keys);
+    }
+
+    @Benchmark
+    public MyHashTableImpl<Object, Object> insertGrowing() {
+        MyHashTableImpl<Object, Object> map = new MyHashTableImpl<>(LOAD_FACTOR);
+        for (Object key : keys)
+            map.insert(key, key);
+        return map;
+    }
+
+    @Benchmark
+    public MyHashTableImpl<Object, Object> insertPresized() {
+        MyHashTableImpl<Object, Object> map = new MyHashTableImpl<>(LOAD_FACTOR, size);
+        for (Object key : keys)
+            map.insert(key, key);
+        return map;
+    }
+
+    @Benchmark
+    public MyHashTableImpl<Object, Object> insertAll() {
+        MyHashTableImpl<Object, Object> map = new MyHashTableImpl<>(LOAD_FACTOR);
+        map.insertAll(keys, keys);
+        return map;
+    }
+
+    @Benchmark
+    public void contains(Blackhole blackhole) {
+        for (Object key : keys)
+            blackhole.consume(filled.contains(key));
+    }
+
+    @Benchmark
+    public int containsAll() {
+        return filled.containsAll(keys, out);
+    }
+}
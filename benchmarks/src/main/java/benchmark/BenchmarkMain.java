@@ -0,0 +1,49 @@
+package benchmark;
+
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Runs the benchmarks with the usual JMH command line options.
+ * Unless -rf or -rff are given, the results are written as JSON
+ * into jmh-result.json, so runs of different versions can be compared.
+ */
+public class BenchmarkMain {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    /**
+     * Starts the benchmarks.
+     *
+     * @param args JMH command line options
+     * @throws Exception if the options are invalid or a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        if (!commandLine.getResult().hasValue())
+            options.result(DEFAULT_RESULT_FILE);
+
+        Runner runner = new Runner(options.build());
+        if (commandLine.shouldList())
+            runner.list();
+        else
+            runner.run();
+    }
+}
@@ -0,0 +1,47 @@
+package benchmark;
+
+
+import interfaces.MyMap;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Exposes java.util.HashMap as MyMap, so it runs through the same benchmark code.
+ */
+public class HashMapAdapter<K, V> implements MyMap<K, V> {
+
+    private final HashMap<K, V> map;
+
+    public HashMapAdapter(double loadFactor) {
+        map = new HashMap<>(16, (float) loadFactor);
+    }
+
+    @Override
+    public void insert(K key, V value) {
+        map.put(key, value);
+    }
+
+    @Override
+    public void delete(K key) {
+        map.remove(key);
+    }
+
+    @Override
+    public V contains(K key) {
+        return map.get(key);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> entries() {
+        return map.entrySet().stream()
+                .map(entry -> (Map.Entry<K, V>) new AbstractMap.SimpleImmutableEntry<>(entry))
+                .iterator();
+    }
+}
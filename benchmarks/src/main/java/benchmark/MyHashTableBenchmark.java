@@ -0,0 +1,148 @@
+package benchmark;
+
+
+import impl.MyHashTableImpl;
+import impl.PowerOfTwoHashStrategy;
+import impl.PrimeHashStrategy;
+import interfaces.MyMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Compares insert, contains and delete of MyHashTableImpl, with both hash
+ * strategies, against java.util.HashMap. Every operation runs over all keys,
+ * so the score is the time of 'size' operations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class MyHashTableBenchmark {
+
+    @Param({"prime", "powerOfTwo", "hashMap"})
+    public String implementation;
+
+    @Param({"0.5", "0.75"})
+    public double loadFactor;
+
+    @Param({"Integer", "String"})
+    public String keyType;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Object[] keys;
+    private Object[] missingKeys;
+    private MyMap<Object, Object> filled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = generateKeys(keyType, 0, size);
+        missingKeys = generateKeys(keyType, size, size);
+        filled = createFilledMap();
+    }
+
+    /**
+     * Creates an empty map of the benchmarked implementation.
+     *
+     * @return new map
+     */
+    MyMap<Object, Object> createMap() {
+        switch (implementation) {
+            case "prime":
+                PrimeHashStrategy prime = new PrimeHashStrategy();
+                //Quadratic probing reaches half of a prime array, higher load factors run at the cap
+                return new MyHashTableImpl<>(Math.min(loadFactor, prime.maxLoadFactor()), prime);
+            case "powerOfTwo":
+                return new MyHashTableImpl<>(loadFactor, new PowerOfTwoHashStrategy());
+            case "hashMap":
+                return new HashMapAdapter<>(loadFactor);
+            default:
+                throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        }
+    }
+
+    MyMap<Object, Object> createFilledMap() {
+        MyMap<Object, Object> map = createMap();
+        for (Object key : keys)
+            map.insert(key, key);
+        return map;
+    }
+
+    /**
+     * Generates distinct keys. Integer keys are scattered by an odd multiplier,
+     * which is a bijection on int, String keys are their decimal form.
+     *
+     * @param keyType Integer or String
+     * @param first index of the first key
+     * @param count number of keys
+     * @return keys
+     */
+    static Object[] generateKeys(String keyType, int first, int count) {
+        Object[] keys = new Object[count];
+        for (int i = 0; i < count; i++) {
+            int value = (first + i) * 0x9E3779B9;
+            keys[i] = keyType.equals("String") ? "key-" + value : (Object) value;
+        }
+        return keys;
+    }
+
+    @Benchmark
+    public MyMap<Object, Object> insert() {
+        return createFilledMap();
+    }
+
+    @Benchmark
+    public void containsHit(Blackhole blackhole) {
+        for (Object key : keys)
+            blackhole.consume(filled.contains(key));
+    }
+
+    @Benchmark
+    public void containsMiss(Blackhole blackhole) {
+        for (Object key : missingKeys)
+            blackhole.consume(filled.contains(key));
+    }
+
+    @Benchmark
+    public MyMap<Object, Object> delete(FilledMap state) {
+        MyMap<Object, Object> map = state.map;
+        for (Object key : keys)
+            map.delete(key);
+        return map;
+    }
+
+    /**
+     * A filled map for every delete invocation, the filling is not measured.
+     *
+     */
+    @State(Scope.Thread)
+    public static class FilledMap {
+
+        MyMap<Object, Object> map;
+
+        @Setup(Level.Invocation)
+        public void fill(MyHashTableBenchmark benchmark) {
+            map = benchmark.createFilledMap();
+        }
+    }
+}
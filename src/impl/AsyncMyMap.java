@@ -0,0 +1,301 @@
+package impl;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Asynchronous facade over a MyHashTableImpl owned by a single thread.
+ * Callers put requests into a bounded queue and get a CompletableFuture back;
+ * the owner thread drains the queue in batches and runs consecutive lookups of
+ * a batch through containsAll, so concurrent callers never lock the table and
+ * share its batched probing. Requests of one caller run in the order they
+ * were submitted. A full queue blocks the submitting thread until the owner
+ * catches up, which is the backpressure.
+ *
+ * The futures are completed on the owner thread, so heavy continuations
+ * should use the async variants of the CompletableFuture methods.
+ */
+public class AsyncMyMap<K, V> implements AutoCloseable {
+
+    /**
+     * Maximum number of requests the owner takes from the queue at once.
+     *
+     * */
+    private static final int MAX_BATCH = 256;
+
+    private static final int CONTAINS = 0;
+    private static final int INSERT = 1;
+    private static final int DELETE = 2;
+    private static final int STOP = 3;
+
+    private final MyHashTableImpl<K, V> table;
+    private final BlockingQueue<Request> queue;
+    private final Thread owner;
+    private volatile boolean closed = false; //No new requests are accepted
+    private volatile boolean stopped = false; //The owner takes no more requests from the queue
+    private volatile boolean stopQueued = false; //close has put the stop request into the queue
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum load factor of the table.
+     * @param queueCapacity number of pending requests before submitting blocks.
+     * */
+    public AsyncMyMap(double maxLoadFactor, int queueCapacity) {
+        this(new MyHashTableImpl<>(maxLoadFactor), queueCapacity);
+    }
+
+    /**
+     * A public constructor. The table must not be used directly afterwards,
+     * the owner thread reads and writes it without locking.
+     *
+     * @param table served table.
+     * @param queueCapacity number of pending requests before submitting blocks.
+     * */
+    public AsyncMyMap(MyHashTableImpl<K, V> table, int queueCapacity) {
+
+        if(queueCapacity <= 0)
+            throw new IllegalArgumentException("The queue must hold at least one request.");
+
+        this.table = table;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.owner = new Thread(this::serve, "async-hash-table");
+        owner.setDaemon(true);
+        owner.start();
+    }
+
+    /**
+     * Looks up the key on the owner thread.
+     * Blocks while the queue is full.
+     *
+     * @param key specified key
+     * @return future of the value associated with the key, or null
+     * */
+    public CompletableFuture<V> contains(K key) {
+        return submit(CONTAINS, key, null);
+    }
+
+    /**
+     * Inserts the element on the owner thread.
+     * Blocks while the queue is full.
+     *
+     * @param key sets key
+     * @param value pairs a value with a given key
+     * @return future completed once the element is inserted
+     * */
+    public CompletableFuture<Void> insert(K key, V value) {
+        return submit(INSERT, key, value);
+    }
+
+    /**
+     * Deletes the key on the owner thread.
+     * Blocks while the queue is full.
+     *
+     * @param key the key chosen for removal.
+     * @return future completed once the key is deleted
+     * */
+    public CompletableFuture<Void> delete(K key) {
+        return submit(DELETE, key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(int type, Object key, Object value) {
+
+        Request request = new Request(type, key, value);
+        if(closed) {
+            request.future.completeExceptionally(new IllegalStateException("The map is closed."));
+            return (CompletableFuture<T>) request.future;
+        }
+
+        try {
+            queue.put(request);
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.future.completeExceptionally(e);
+            return (CompletableFuture<T>) request.future;
+        }
+
+        //The owner sets stopped before its last drain, so a request put after that drain is failed here
+        if(stopped)
+            failPending();
+        return (CompletableFuture<T>) request.future;
+    }
+
+    /**
+     * Stops the owner thread after it has run every request submitted so far.
+     * Requests submitted afterwards fail with IllegalStateException.
+     * If the calling thread is interrupted, close returns without waiting and
+     * keeps the interrupt flag set; calling close again resumes it.
+     *
+     * */
+    @Override
+    public void close() {
+
+        closed = true;
+        try {
+            if(!stopQueued && !stopped) {
+                queue.put(new Request(STOP, null, null));
+                stopQueued = true;
+            }
+            owner.join();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Loop of the owner thread: takes a batch of requests and runs it.
+     *
+     * */
+    private void serve() {
+
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            boolean stop = false;
+            while(!stop) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                stop = run(batch);
+                if(!stop)
+                    batch.clear(); //Requests after the stop request are failed below
+            }
+        }
+        catch(InterruptedException e) {
+            new Logger().log("The owner thread of an async map was interrupted, pending requests fail.");
+        }
+        catch(RuntimeException | Error e) {
+            new Logger().log("The owner thread of an async map failed, pending requests fail: " + e);
+            for(Request request : batch)
+                request.future.completeExceptionally(e); //Completing a future twice has no effect
+        }
+        finally {
+            closed = true;
+            stopped = true;
+            for(Request request : batch)
+                request.future.completeExceptionally(new IllegalStateException("The map is closed."));
+            failPending();
+        }
+    }
+
+    /**
+     * Runs the requests in order. Consecutive lookups are collected and
+     * run together through containsAll before the next write.
+     *
+     * @param batch requests taken from the queue.
+     * @return whether the batch contained the stop request.
+     * */
+    private boolean run(List<Request> batch) {
+
+        int lookups = 0;
+        for(int i = 0; i < batch.size(); i++) {
+            Request request = batch.get(i);
+            if(request.type == CONTAINS) {
+                lookups++;
+                continue;
+            }
+
+            lookup(batch, i - lookups, i);
+            lookups = 0;
+            if(request.type == STOP)
+                return true;
+
+            try {
+                if(request.type == INSERT)
+                    table.insert(request.key(), request.value());
+                else
+                    table.delete(request.key());
+                request.future.complete(null);
+            }
+            catch(RuntimeException e) {
+                request.future.completeExceptionally(e);
+            }
+        }
+        lookup(batch, batch.size() - lookups, batch.size());
+        return false;
+    }
+
+    /**
+     * Runs the lookups of the batch in the range with one containsAll.
+     *
+     * @param batch requests taken from the queue.
+     * @param start first lookup.
+     * @param end one past the last lookup.
+     * */
+    @SuppressWarnings("unchecked")
+    private void lookup(List<Request> batch, int start, int end) {
+
+        if(start == end)
+            return;
+
+        Object [] keys = new Object[end - start];
+        Object [] out = new Object[end - start];
+        for(int i = start; i < end; i++)
+            keys[i - start] = batch.get(i).key;
+
+        try {
+            table.containsAll((K []) keys, (V []) out);
+        }
+        catch(RuntimeException e) {
+            for(int i = start; i < end; i++)
+                batch.get(i).future.completeExceptionally(e);
+            return;
+        }
+        for(int i = start; i < end; i++)
+            batch.get(i).future.complete(out[i - start]);
+    }
+
+    private void failPending() {
+
+        List<Request> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        for(Request request : pending)
+            request.future.completeExceptionally(new IllegalStateException("The map is closed."));
+    }
+
+    /**
+     * Returns the number of requests waiting for the owner thread.
+     *
+     * @return queue length.
+     * */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * A queued operation and the future of its result.
+     *
+     * */
+    private final class Request {
+
+        private final int type;
+        private final Object key;
+        private final Object value;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Request(int type, Object key, Object value) {
+            this.type = type;
+            this.key = key;
+            this.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private K key() {
+            return (K) key;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V value() {
+            return (V) value;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package impl;
+
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Blocked Bloom filter over int hashes. Every hash selects one block of 512 bits
+ * (eight longs, one cache line) and sets or checks six bits inside it, so a query
+ * touches a single block. Sized at ten bits per key, about 1% of the absent hashes
+ * pass. Bits are never cleared, removed keys are dropped by building a new filter.
+ */
+final class BlockedBloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_LONGS = BLOCK_BITS / Long.SIZE;
+    private static final int BITS_PER_HASH = 6;
+
+    private final long [] bits;
+    private final int blocks;
+
+    /**
+     * A package-private constructor.
+     *
+     * @param capacity number of keys the filter is sized for.
+     * */
+    BlockedBloomFilter(int capacity) {
+        blocks = (int) Math.max(1, ((long) capacity * BITS_PER_KEY + BLOCK_BITS - 1) / BLOCK_BITS);
+        bits = new long[blocks * BLOCK_LONGS];
+    }
+
+    private BlockedBloomFilter(BlockedBloomFilter other) {
+        blocks = other.blocks;
+        bits = other.bits.clone();
+    }
+
+    void add(int hash) {
+
+        long mixed = mix(hash);
+        int block = block(mixed);
+        long offsets = mixed * 0x9E3779B97F4A7C15L; //Six 9 bit offsets within the block
+
+        for(int i = 0; i < BITS_PER_HASH; i++, offsets >>>= 9) {
+            int bit = (int) offsets & (BLOCK_BITS - 1);
+            bits[block + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks whether a key with the hash may have been added.
+     *
+     * @param hash hash of the key.
+     * @return false if it certainly was not.
+     * */
+    boolean mightContain(int hash) {
+
+        long mixed = mix(hash);
+        int block = block(mixed);
+        long offsets = mixed * 0x9E3779B97F4A7C15L;
+
+        for(int i = 0; i < BITS_PER_HASH; i++, offsets >>>= 9) {
+            int bit = (int) offsets & (BLOCK_BITS - 1);
+            if((bits[block + (bit >>> 6)] & 1L << bit) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    BlockedBloomFilter copy() {
+        return new BlockedBloomFilter(this);
+    }
+
+    /**
+     * Returns the first long of the block, from the upper bits of the mixed hash.
+     *
+     * */
+    private int block(long mixed) {
+        return (int) (((mixed >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+    }
+
+    /**
+     * The splitmix64 finalizer, strategy hashes may have weak lower bits.
+     *
+     * */
+    private static long mix(int hash) {
+        long x = hash & 0xFFFFFFFFL;
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
@@ -0,0 +1,147 @@
+package impl;
+
+
+import interfaces.Codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Class used to separate the binary codecs for common key and value types.
+ */
+public final class Codecs {
+
+    /**
+     * Integer as 4 bytes, big endian.
+     *
+     * */
+    public static final Codec<Integer> INTEGER = new Codec<Integer>() {
+
+        @Override
+        public int sizeOf(Integer value) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, Integer value) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int length) {
+            return buffer.getInt();
+        }
+    };
+
+    /**
+     * Long as 8 bytes, big endian.
+     *
+     * */
+    public static final Codec<Long> LONG = new Codec<Long>() {
+
+        @Override
+        public int sizeOf(Long value) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, Long value) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int length) {
+            return buffer.getLong();
+        }
+    };
+
+    /**
+     * String as UTF-8 bytes. The length is kept by the caller.
+     * An unpaired surrogate is encoded like a code point of its own, in
+     * three bytes (WTF-8), so every String reads back unchanged.
+     *
+     * */
+    public static final Codec<String> STRING = new Codec<String>() {
+
+        @Override
+        public int sizeOf(String value) {
+
+            int size = 0;
+            for(int i = 0; i < value.length(); i++) {
+                int codePoint = codePointAt(value, i);
+                if(codePoint > 0xFFFF)
+                    i++; //The low surrogate is part of the code point
+                size += utf8Length(codePoint);
+            }
+            return size;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, String value) {
+
+            for(int i = 0; i < value.length(); i++) {
+                int codePoint = codePointAt(value, i);
+                if(codePoint < 0x80) {
+                    buffer.put((byte) codePoint);
+                    continue;
+                }
+                if(codePoint > 0xFFFF)
+                    i++;
+
+                int bytes = utf8Length(codePoint);
+                buffer.put((byte) ((0xFF00 >> bytes) | codePoint >> (6 * (bytes - 1)))); //Lead byte, 110xxxxx, 1110xxxx or 11110xxx
+                for(int k = bytes - 2; k >= 0; k--)
+                    buffer.put((byte) (0x80 | (codePoint >> (6 * k)) & 0x3F)); //Continuation bytes, 10xxxxxx
+            }
+        }
+
+        @Override
+        public String read(ByteBuffer buffer, int length) {
+
+            char[] chars = new char[length]; //Every character takes at least one byte
+            int count = 0;
+            int end = buffer.position() + length;
+            while(buffer.position() < end) {
+                int lead = buffer.get() & 0xFF;
+                if(lead < 0x80) {
+                    chars[count++] = (char) lead;
+                    continue;
+                }
+
+                int bytes = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : 2;
+                int codePoint = lead & (0x7F >> bytes); //Payload bits of the lead byte
+                for(int k = 1; k < bytes; k++)
+                    codePoint = codePoint << 6 | buffer.get() & 0x3F;
+                count += Character.toChars(codePoint, chars, count); //An unpaired surrogate comes back as one char
+            }
+            return new String(chars, 0, count);
+        }
+    };
+
+    /**
+     * Returns the code point starting at the index. An unpaired
+     * surrogate is returned as it is and encoded in three bytes.
+     *
+     * */
+    private static int codePointAt(String value, int index) {
+
+        char c = value.charAt(index);
+        if(Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1)))
+            return Character.toCodePoint(c, value.charAt(index + 1));
+        return c;
+    }
+
+    private static int utf8Length(int codePoint) {
+        return codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * A private constructor, to prevent making instances.
+     */
+    private Codecs() {
+
+    }
+}
@@ -0,0 +1,461 @@
+package impl;
+
+
+import interfaces.MyMap;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Thread-safe map using striped hash tables with quadratic probing collision technique.
+ * Keys are spread over independent segments. Writers lock only their segment and
+ * each segment is resized on its own. Readers never lock; they probe the slot array
+ * that was last published by the segment.
+ */
+public class ConcurrentMyHashTable<K, V> implements MyMap<K, V> {
+
+    /**
+     * Default number of segments.
+     * Must remain a power of two.
+     *
+     * */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * Default length for the slot array of every segment.
+     * Must remain a prime.
+     *
+     * */
+    private static final int DEFAULT_ARRAY_LENGTH = 13;
+
+    /**
+     * Marks a deleted slot. Its key never equals any other key,
+     * so probing continues past it.
+     *
+     * */
+    private static final Node<Object, Object> TOMBSTONE = new Node<>(new Object(), 0, null);
+
+    private final Segment<K, V> [] segments;
+    private final int segmentShift;
+    private final double maxLoadFactor;
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      slot array of a segment before rehash is required, at most 0.5.
+     * */
+    public ConcurrentMyHashTable(double maxLoadFactor) {
+        this(maxLoadFactor, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      slot array of a segment before rehash is required, at most 0.5.
+     * @param concurrencyLevel expected number of concurrent writers,
+     *                         rounded up to a power of two segments.
+     * */
+    @SuppressWarnings("unchecked")
+    public ConcurrentMyHashTable(double maxLoadFactor, int concurrencyLevel) {
+
+        if(maxLoadFactor <= 0 || maxLoadFactor > 0.5)
+            throw new IllegalArgumentException("The load factor must be between 0 and 0.5, quadratic probing reaches only half of the slots.");
+        if(concurrencyLevel <= 0)
+            throw new IllegalArgumentException("The concurrency level must be positive.");
+
+        int count = 1;
+        int bits = 0;
+        while(count < concurrencyLevel) {
+            count <<= 1;
+            bits++;
+        }
+
+        this.maxLoadFactor = maxLoadFactor;
+        this.segmentShift = 32 - bits;
+        this.segments = (Segment<K, V> []) new Segment<?, ?>[count];
+        for(int i = 0; i < count; i++)
+            segments[i] = new Segment<>();
+    }
+
+    /**
+     * Inserts the element into the segment of the key.
+     * Replaces the previous value if the key already exists.
+     *
+     * @param key sets key
+     * @param value pairs a value with a given key
+     * */
+    @Override
+    public void insert(K key, V value) {
+        int hash = spread(key.hashCode());
+        segmentFor(hash).insert(key, hash, value, maxLoadFactor);
+    }
+
+    /**
+     * Performs a usual deletion of a specified key.
+     *
+     * @param key the key chosen for removal.
+     * */
+    @Override
+    public void delete(K key) {
+        int hash = spread(key.hashCode());
+        segmentFor(hash).delete(key, hash);
+    }
+
+    /**
+     * Returns the value associated with a given key.
+     * Never blocks.
+     *
+     * @param key specified key
+     * @return value associated with the key
+     * */
+    @Override
+    public V contains(K key) {
+        int hash = spread(key.hashCode());
+        return segmentFor(hash).contains(key, hash);
+    }
+
+    /**
+     * Inserts the value if the key has no value yet.
+     * Atomic, holds the lock of the key segment.
+     *
+     * @param key specified key
+     * @param value inserted value
+     * @return the current value, or null if the value was inserted
+     * */
+    @Override
+    public V putIfAbsent(K key, V value) {
+
+        int hash = spread(key.hashCode());
+        Segment<K, V> segment = segmentFor(hash);
+        segment.lock();
+        try {
+            V current = segment.contains(key, hash);
+            if(current == null)
+                segment.insert(key, hash, value, maxLoadFactor);
+            return current;
+        }
+        finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Replaces the value of the key with the result of the remapping function,
+     * deleting the key if the result is null. Atomic, holds the lock of the
+     * key segment, so merge is atomic as well.
+     *
+     * @param key specified key
+     * @param remapping computes the new value from the key and the current value or null
+     * @return the new value
+     * */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+
+        int hash = spread(key.hashCode());
+        Segment<K, V> segment = segmentFor(hash);
+        segment.lock();
+        try {
+            V value = remapping.apply(key, segment.contains(key, hash));
+            if(value == null)
+                segment.delete(key, hash);
+            else
+                segment.insert(key, hash, value, maxLoadFactor);
+            return value;
+        }
+        finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over the entries. Never blocks, every segment
+     * is read from the slot array it has published when the iterator reaches it,
+     * so concurrent changes may or may not be seen.
+     *
+     * @return iterator over copies of the entries.
+     * */
+    @Override
+    public Iterator<Map.Entry<K, V>> entries() {
+        return Arrays.stream(segments)
+                .flatMap(segment -> {
+                    AtomicReferenceArray<Node<K, V>> table = segment.table;
+                    return IntStream.range(0, table.length())
+                            .mapToObj(table::get)
+                            .filter(node -> node != null && node != TOMBSTONE);
+                })
+                .map(node -> (Map.Entry<K, V>) new MapEntryImpl<>(node.key, node.value))
+                .iterator();
+    }
+
+    /**
+     * Returns the number of keys in all segments.
+     * The result is only a snapshot if writers are active.
+     *
+     * @return number of keys.
+     * */
+    public int size() {
+        int size = 0;
+        for(Segment<K, V> segment : segments)
+            size += segment.count;
+        return size;
+    }
+
+    /**
+     * Returns the segment responsible for the hash.
+     * Uses the upper bits, the lower ones select the slot.
+     *
+     * @param hash spread hash of the key.
+     * @return segment of the key.
+     * */
+    private Segment<K, V> segmentFor(int hash) {
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    /**
+     * Mixes the bits of the hash code, so both the upper bits used
+     * for the segment and the lower bits used for the slot vary.
+     *
+     * @param hashCode hash code of the key.
+     * @return spread hash.
+     * */
+    private static int spread(int hashCode) {
+        int hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the marker for deleted slots.
+     *
+     * @return deleted slot marker.
+     * */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> tombstone() {
+        return (Node<K, V>) (Node<?, ?>) TOMBSTONE;
+    }
+
+    /**
+     * Returns the next position of a quadratic probe. The offset grows with
+     * every probe, so the sum is reduced with a modulo, not one subtraction.
+     *
+     * @param position previous position.
+     * @param offset distance to the next position.
+     * @param length length of the slot array.
+     * @return next position.
+     * */
+    private static int probe(int position, int offset, int length) {
+        return (int) ((position + (long) offset) % length);
+    }
+
+    /**
+     * Finds next prime number from a given value.
+     *
+     * @param num value from which the search begins.
+     * @return next prime number.
+     * */
+    private static int nextPrime(int num) {
+
+        if(num % 2 == 0)
+            num++;
+        while(!isPrime(num))
+            num += 2;
+
+        return num;
+    }
+
+    /**
+     * Check if the number is prime.
+     * Executes in O( sqrt(N) ).
+     *
+     * @param num checked value.
+     * @return whether number is a prime.
+     * */
+    private static boolean isPrime(int num) {
+
+        for(int i = 3; i * i <= num; i += 2) {
+            if(num % i == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Slot content. Key and hash never change, the value is
+     * volatile so readers see in place updates.
+     *
+     * */
+    private static final class Node<K, V> {
+
+        private final K key;
+        private final int hash;
+        private volatile V value;
+
+        private Node(K key, int hash, V value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Independent hash table guarded by its own lock.
+     * The slot array is replaced, never modified, once a resize is published.
+     *
+     * */
+    private static final class Segment<K, V> extends ReentrantLock {
+
+        private static final long serialVersionUID = 1L;
+
+        private volatile AtomicReferenceArray<Node<K, V>> table = new AtomicReferenceArray<>(DEFAULT_ARRAY_LENGTH);
+        private volatile int count = 0; //Live keys
+        private int used = 0; //Live keys and tombstones, guarded by the lock
+
+        /**
+         * Lock-free lookup on the published slot array.
+         *
+         * @param key specified key
+         * @param hash spread hash of the key
+         * @return value associated with the key or null
+         * */
+        private V contains(K key, int hash) {
+
+            AtomicReferenceArray<Node<K, V>> table = this.table;
+            int length = table.length();
+            int offset = 1;
+            int position = (hash & 0x7fffffff) % length;
+
+            //Every probe sequence is bounded, the array always keeps free slots
+            for(int probes = 0; probes < length; probes++) {
+                Node<K, V> node = table.get(position);
+                if(node == null)
+                    return null;
+                if(node.hash == hash && node.key.equals(key))
+                    return node.value;
+
+                position = probe(position, offset, length);
+                offset += 2;
+            }
+            return null;
+        }
+
+        private void insert(K key, int hash, V value, double maxLoadFactor) {
+
+            lock();
+            try {
+                while(true) {
+                    AtomicReferenceArray<Node<K, V>> table = this.table;
+                    int length = table.length();
+                    int offset = 1;
+                    int position = (hash & 0x7fffffff) % length;
+                    int reusable = -1; //First tombstone on the probing path
+
+                    for(int probes = 0; probes < length; probes++) {
+                        Node<K, V> node = table.get(position);
+                        if(node == null)
+                            break;
+                        if(node == TOMBSTONE) {
+                            if(reusable < 0)
+                                reusable = position;
+                        }
+                        else if(node.hash == hash && node.key.equals(key)) {
+                            node.value = value; //Override the value if the key already exists
+                            return;
+                        }
+
+                        position = probe(position, offset, length);
+                        offset += 2;
+                    }
+
+                    if(reusable >= 0) {
+                        table.set(reusable, new Node<>(key, hash, value));
+                        count++;
+                        return;
+                    }
+                    if(table.get(position) == null && (double)(used + 1) / length < maxLoadFactor) {
+                        table.set(position, new Node<>(key, hash, value));
+                        count++;
+                        used++;
+                        return;
+                    }
+
+                    rehash(maxLoadFactor); //No free slot below the load factor, retry on the new array
+                }
+            }
+            finally {
+                unlock();
+            }
+        }
+
+        private void delete(K key, int hash) {
+
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> table = this.table;
+                int length = table.length();
+                int offset = 1;
+                int position = (hash & 0x7fffffff) % length;
+
+                for(int probes = 0; probes < length; probes++) {
+                    Node<K, V> node = table.get(position);
+                    if(node == null)
+                        return;
+                    if(node.hash == hash && node.key.equals(key)) {
+                        table.set(position, tombstone()); //Keeps the probing chain intact
+                        count--;
+                        return;
+                    }
+
+                    position = probe(position, offset, length);
+                    offset += 2;
+                }
+            }
+            finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Copies the live nodes into a new slot array and publishes it.
+         * The array grows only if live keys need it, otherwise
+         * the rehash just drops the tombstones.
+         * Executes in O(N) of the segment, must hold the lock.
+         *
+         * @param maxLoadFactor maximum load factor of the segment.
+         * */
+        private void rehash(double maxLoadFactor) {
+
+            AtomicReferenceArray<Node<K, V>> oldTable = table;
+            int length = oldTable.length();
+            if((double)(count + 1) / length >= maxLoadFactor / 2)
+                length = nextPrime(2 * length);
+
+            AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<>(length);
+            for(int i = 0; i < oldTable.length(); i++) {
+                Node<K, V> node = oldTable.get(i);
+                if(node == null || node == TOMBSTONE)
+                    continue;
+
+                int offset = 1;
+                int position = (node.hash & 0x7fffffff) % length;
+                while(newTable.get(position) != null) {
+                    position = probe(position, offset, length);
+                    offset += 2;
+                }
+                newTable.set(position, node); //Nodes are shared, old readers still see value updates
+            }
+
+            used = count;
+            table = newTable; //Publish to readers
+        }
+    }
+}
@@ -0,0 +1,597 @@
+package impl;
+
+
+import interfaces.Codec;
+import interfaces.MyMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.zip.CRC32C;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Durable map wrapping MyHashTableImpl. Every insert and delete is appended to a
+ * write-ahead log and returns once the log is forced to the disk. Writers waiting
+ * for the disk at the same time share one force: the first one forces everything
+ * written so far and the others find their records already durable (group commit).
+ *
+ * When the log grows past a threshold, a new log generation is started and a copy
+ * of the table is saved as a snapshot in the background. Once the snapshot is in
+ * place, the older logs and snapshots are deleted. Opening the directory loads the
+ * newest snapshot and replays the logs written after it.
+ *
+ * Files: snapshot-N.mhs holds every change of the logs before generation N,
+ * log-N.wal holds the records of generation N. Every record is
+ * [payload length: 4][CRC32C of the payload: 4][type: 1][key length: 4][key][value length: 4][value],
+ * deletes have no value part and a null value has length -1.
+ */
+public class DurableHashTable<K, V> implements MyMap<K, V>, Closeable {
+
+    /**
+     * Default log size that starts a compaction.
+     *
+     * */
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 64L << 20;
+
+    private static final byte INSERT = 1;
+    private static final byte DELETE = 2;
+    private static final int RECORD_HEADER = 8;
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".mhs";
+    private static final String LOG_PREFIX = "log-";
+    private static final String LOG_SUFFIX = ".wal";
+
+    private final Path directory;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final long compactionThreshold;
+    private final MyHashTableImpl<K, V> table;
+    private final ReentrantLock tableLock = new ReentrantLock(); //Guards the table, the log writes and the generation
+    private final ReentrantLock syncLock = new ReentrantLock(); //Held by the writer forcing the log
+    private final CRC32C checksum = new CRC32C();
+    private final ExecutorService compactor;
+    private ByteBuffer record = ByteBuffer.allocate(256); //Encoded record of the current write
+    private FileChannel log;
+    private long generation;
+    private long logSize;
+    private Future<?> compaction; //Last started compaction, null if none
+    private volatile long written = 0; //Sequence number of the last record written to the log
+    private long durable = 0; //Sequence number of the last forced record, guarded by syncLock
+    private boolean closed = false;
+
+    /**
+     * A public constructor. Opens the map stored in the directory,
+     * or creates an empty one.
+     *
+     * @param directory directory of the snapshot and log files.
+     * @param keyCodec encodes the keys.
+     * @param valueCodec encodes the values.
+     * @param maxLoadFactor maximum load factor of a new table.
+     * @throws IOException if the files cannot be read or written.
+     * */
+    public DurableHashTable(Path directory, Codec<K> keyCodec, Codec<V> valueCodec, double maxLoadFactor) throws IOException {
+        this(directory, keyCodec, valueCodec, maxLoadFactor, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * A public constructor. Opens the map stored in the directory,
+     * or creates an empty one.
+     *
+     * @param directory directory of the snapshot and log files.
+     * @param keyCodec encodes the keys.
+     * @param valueCodec encodes the values.
+     * @param maxLoadFactor maximum load factor of a new table.
+     * @param compactionThreshold log size in bytes that starts a compaction.
+     * @throws IOException if the files cannot be read or written.
+     * */
+    public DurableHashTable(Path directory, Codec<K> keyCodec, Codec<V> valueCodec,
+                            double maxLoadFactor, long compactionThreshold) throws IOException {
+
+        if(compactionThreshold <= 0)
+            throw new IllegalArgumentException("The compaction threshold must be positive.");
+
+        this.directory = directory;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.compactionThreshold = compactionThreshold;
+        Files.createDirectories(directory);
+
+        //Newest snapshot first, then the logs written after it in order
+        TreeMap<Long, Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        TreeMap<Long, Path> logs = list(LOG_PREFIX, LOG_SUFFIX);
+        long snapshotGeneration = snapshots.isEmpty() ? 0 : snapshots.lastKey();
+
+        table = snapshots.isEmpty() ? new MyHashTableImpl<>(maxLoadFactor)
+                : MyHashTableImpl.load(snapshots.lastEntry().getValue(), keyCodec, valueCodec); //Keeps its stored load factor
+
+        boolean replayed = false;
+        for(Map.Entry<Long, Path> entry : logs.tailMap(snapshotGeneration, true).entrySet())
+            replayed |= replay(entry.getValue(), entry.getKey().equals(logs.lastKey()));
+
+        generation = Math.max(snapshotGeneration, logs.isEmpty() ? 0 : logs.lastKey()) + 1;
+        log = openLog(generation);
+
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hash-table-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if(replayed) {
+            tableLock.lock();
+            try {
+                startCompaction(); //The replayed logs are folded into a new snapshot
+            }
+            finally {
+                tableLock.unlock();
+            }
+        }
+        else
+            deleteBefore(snapshotGeneration); //Leftovers of an interrupted compaction
+    }
+
+    /**
+     * Inserts the element and returns once the change is durable.
+     *
+     * @param key sets key
+     * @param value pairs a value with a given key
+     * */
+    @Override
+    public void insert(K key, V value) {
+
+        long sequence;
+        tableLock.lock();
+        try {
+            sequence = append(INSERT, key, value);
+            table.insert(key, value);
+            compactIfNeeded();
+        }
+        finally {
+            tableLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Deletes the key and returns once the change is durable.
+     *
+     * @param key the key chosen for removal.
+     * */
+    @Override
+    public void delete(K key) {
+
+        long sequence;
+        tableLock.lock();
+        try {
+            sequence = append(DELETE, key, null);
+            table.delete(key);
+            compactIfNeeded();
+        }
+        finally {
+            tableLock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Returns the value associated with a given key.
+     * A value becomes visible once it is written to the log, before it is forced.
+     *
+     * @param key specified key
+     * @return value associated with the key
+     * */
+    @Override
+    public V contains(K key) {
+
+        tableLock.lock();
+        try {
+            return table.contains(key);
+        }
+        finally {
+            tableLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the value if the key has no value yet. Atomic.
+     *
+     * @param key specified key
+     * @param value inserted value
+     * @return the current value, or null if the value was inserted
+     * */
+    @Override
+    public V putIfAbsent(K key, V value) {
+
+        V current;
+        long sequence = 0;
+        tableLock.lock();
+        try {
+            current = table.contains(key);
+            if(current == null) {
+                sequence = append(INSERT, key, value);
+                table.insert(key, value);
+                compactIfNeeded();
+            }
+        }
+        finally {
+            tableLock.unlock();
+        }
+        awaitDurable(sequence);
+        return current;
+    }
+
+    /**
+     * Replaces the value of the key with the result of the remapping function,
+     * deleting the key if the result is null. Atomic, so merge is atomic as well.
+     *
+     * @param key specified key
+     * @param remapping computes the new value from the key and the current value or null
+     * @return the new value
+     * */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+
+        V value;
+        long sequence;
+        tableLock.lock();
+        try {
+            value = remapping.apply(key, table.contains(key));
+            sequence = append(value == null ? DELETE : INSERT, key, value);
+            if(value == null)
+                table.delete(key);
+            else
+                table.insert(key, value);
+            compactIfNeeded();
+        }
+        finally {
+            tableLock.unlock();
+        }
+        awaitDurable(sequence);
+        return value;
+    }
+
+    /**
+     * Returns an iterator over a copy of the entries taken under the lock.
+     *
+     * @return iterator over copies of the entries.
+     * */
+    @Override
+    public Iterator<Map.Entry<K, V>> entries() {
+
+        tableLock.lock();
+        try {
+            return table.copy().entries();
+        }
+        finally {
+            tableLock.unlock();
+        }
+    }
+
+    public int size() {
+
+        tableLock.lock();
+        try {
+            return table.size();
+        }
+        finally {
+            tableLock.unlock();
+        }
+    }
+
+    /**
+     * Encodes the record and writes it to the log. Must hold the table lock.
+     * The table is changed only after the write succeeded.
+     *
+     * @param type INSERT or DELETE.
+     * @param key changed key.
+     * @param value inserted value, ignored for deletes.
+     * @return sequence number of the record.
+     * */
+    private long append(byte type, K key, V value) {
+
+        if(closed)
+            throw new IllegalStateException("The table is closed.");
+
+        int keyLength = keyCodec.sizeOf(key);
+        int valueLength = type == DELETE || value == null ? -1 : valueCodec.sizeOf(value);
+        int payload = 1 + 4 + keyLength + (type == DELETE ? 0 : 4 + Math.max(valueLength, 0));
+
+        if(record.capacity() < RECORD_HEADER + payload)
+            record = ByteBuffer.allocate(Math.max(RECORD_HEADER + payload, 2 * record.capacity()));
+        record.clear();
+        record.position(RECORD_HEADER);
+        record.put(type).putInt(keyLength);
+        keyCodec.write(record, key);
+        if(type == INSERT) {
+            record.putInt(valueLength);
+            if(valueLength >= 0)
+                valueCodec.write(record, value);
+        }
+
+        checksum.reset();
+        checksum.update(record.array(), RECORD_HEADER, payload);
+        record.putInt(0, payload).putInt(4, (int) checksum.getValue());
+        record.flip();
+
+        try {
+            while(record.hasRemaining())
+                log.write(record);
+        }
+        catch(IOException e) {
+            closed = true; //The log may hold a partial record, refuse further writes
+            throw new UncheckedIOException("Cannot write the log.", e);
+        }
+
+        logSize += RECORD_HEADER + payload;
+        return ++written;
+    }
+
+    /**
+     * Starts a compaction if the log is past the threshold and no compaction
+     * is running. Must hold the table lock and be called after the table
+     * is changed, so the snapshot contains every record of the old logs.
+     *
+     * */
+    private void compactIfNeeded() {
+        if(logSize >= compactionThreshold && (compaction == null || compaction.isDone()))
+            startCompaction();
+    }
+
+    /**
+     * Returns once the record with the sequence number is forced to the disk.
+     * The writer holding the sync lock forces every record written so far,
+     * so writers queued behind it usually return without forcing.
+     *
+     * @param sequence sequence number of the record, 0 if nothing was written.
+     * */
+    private void awaitDurable(long sequence) {
+
+        syncLock.lock();
+        try {
+            if(durable >= sequence)
+                return; //Forced by another writer
+
+            long target = written; //Every record up to here is in the log
+            log.force(false);
+            durable = target;
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException("Cannot force the log.", e);
+        }
+        finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new log generation and saves a copy of the table as the
+     * snapshot of the previous ones in the background. Must hold the table lock.
+     *
+     * */
+    private void startCompaction() {
+
+        long snapshotGeneration;
+        syncLock.lock();
+        try {
+            log.force(false); //The old log stays the only copy until the snapshot exists
+            log.close();
+            durable = written;
+
+            snapshotGeneration = ++generation;
+            log = openLog(snapshotGeneration);
+            logSize = 0;
+        }
+        catch(IOException e) {
+            closed = true;
+            throw new UncheckedIOException("Cannot start a new log.", e);
+        }
+        finally {
+            syncLock.unlock();
+        }
+
+        MyHashTableImpl<K, V> copy = table.copy();
+        compaction = compactor.submit(() -> {
+            try {
+                copy.save(file(SNAPSHOT_PREFIX, snapshotGeneration, SNAPSHOT_SUFFIX), keyCodec, valueCodec);
+                deleteBefore(snapshotGeneration);
+            }
+            catch(IOException e) {
+                new Logger().log("Compaction of " + directory + " failed, the logs are kept: " + e);
+            }
+        });
+    }
+
+    /**
+     * Starts a compaction now and waits for it.
+     *
+     * @throws IOException if the compaction is interrupted.
+     * */
+    public void compact() throws IOException {
+
+        Future<?> started;
+        tableLock.lock();
+        try {
+            if(closed)
+                throw new IllegalStateException("The table is closed.");
+            startCompaction();
+            started = compaction;
+        }
+        finally {
+            tableLock.unlock();
+        }
+
+        try {
+            started.get();
+        }
+        catch(Exception e) {
+            throw new IOException("Compaction failed.", e);
+        }
+    }
+
+    /**
+     * Applies the records of a log to the table. A torn record at the end
+     * of the last log is a write interrupted by a crash, it is cut off.
+     *
+     * @param file log file.
+     * @param last whether it is the newest log.
+     * @return whether any record was applied.
+     * */
+    private boolean replay(Path file, boolean last) throws IOException {
+
+        boolean applied = false;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            if(channel.size() > Integer.MAX_VALUE - 8)
+                throw new IOException("The log " + file + " is too large to replay.");
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while(buffer.hasRemaining() && channel.read(buffer) >= 0);
+            buffer.flip();
+
+            while(buffer.remaining() > 0) {
+                int start = buffer.position();
+                if(!validRecord(buffer)) {
+                    if(!last)
+                        throw new IOException("Corrupt record in " + file + " at " + start + ".");
+                    channel.truncate(start);
+                    channel.force(false);
+                    break;
+                }
+
+                int end = start + RECORD_HEADER + buffer.getInt(start);
+                buffer.position(start + RECORD_HEADER);
+                byte type = buffer.get();
+                int keyLength = buffer.getInt();
+                K key = keyCodec.read(buffer, keyLength);
+                if(type == DELETE)
+                    table.delete(key);
+                else {
+                    int valueLength = buffer.getInt();
+                    table.insert(key, valueLength < 0 ? null : valueCodec.read(buffer, valueLength));
+                }
+                buffer.position(end);
+                applied = true;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Checks that a complete record with a matching checksum starts at the buffer position.
+     *
+     * */
+    private boolean validRecord(ByteBuffer buffer) {
+
+        int start = buffer.position();
+        if(buffer.remaining() < RECORD_HEADER)
+            return false;
+
+        int payload = buffer.getInt(start);
+        if(payload < 5 || payload > buffer.remaining() - RECORD_HEADER)
+            return false;
+
+        checksum.reset();
+        checksum.update(buffer.array(), buffer.arrayOffset() + start + RECORD_HEADER, payload);
+        byte type = buffer.get(start + RECORD_HEADER);
+        return (int) checksum.getValue() == buffer.getInt(start + 4) && (type == INSERT || type == DELETE);
+    }
+
+    private FileChannel openLog(long generation) throws IOException {
+        return FileChannel.open(file(LOG_PREFIX, generation, LOG_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path file(String prefix, long generation, String suffix) {
+        return directory.resolve(prefix + generation + suffix);
+    }
+
+    /**
+     * Lists the files of one kind by generation.
+     *
+     * */
+    private TreeMap<Long, Path> list(String prefix, String suffix) throws IOException {
+
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for(Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), file);
+                }
+                catch(NumberFormatException e) {
+                    //Not one of our files
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Deletes the logs and snapshots covered by the snapshot of the generation.
+     *
+     * */
+    private void deleteBefore(long snapshotGeneration) throws IOException {
+
+        for(Path file : list(LOG_PREFIX, LOG_SUFFIX).headMap(snapshotGeneration).values())
+            Files.deleteIfExists(file);
+        for(Path file : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).headMap(snapshotGeneration).values())
+            Files.deleteIfExists(file);
+    }
+
+    /**
+     * Waits for a running compaction, forces and closes the log.
+     *
+     * @throws IOException if the log cannot be forced.
+     * */
+    @Override
+    public void close() throws IOException {
+
+        tableLock.lock();
+        try {
+            closed = true;
+        }
+        finally {
+            tableLock.unlock();
+        }
+
+        if(compactor.isShutdown())
+            return;
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        syncLock.lock();
+        try {
+            if(log.isOpen()) {
+                log.force(false);
+                log.close();
+            }
+        }
+        finally {
+            syncLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package impl;
+
+
+import interfaces.ArrayWithPublishedSize;
+import interfaces.MyMap;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Read-only map using a minimal perfect hash, in the style of CHD and PTHash.
+ * The keys are split into buckets of about four keys; every bucket stores a pilot
+ * value, chosen while building, that sends its keys into distinct slots of dense
+ * arrays with exactly one slot per key. A lookup reads the pilot of its bucket,
+ * then compares the key in exactly one slot, there is no probing.
+ *
+ * The perfect hash is built on hashCode, so it can not separate different keys
+ * with the same hashCode. All but one key of such a group are kept in a small
+ * overflow table, consulted only when the slot does not hold the key.
+ */
+public class FrozenHashTable<K, V> implements MyMap<K, V>, ArrayWithPublishedSize {
+
+    /**
+     * Average number of keys per bucket. Larger buckets need
+     * less pilot memory but make the build slower.
+     *
+     * */
+    private static final int BUCKET_SIZE = 4;
+
+    /**
+     * Number of seeds tried before the build gives up.
+     *
+     * */
+    private static final int MAX_SEEDS = 16;
+
+    private final Object [] keys; //Dense, one slot per key
+    private final Object [] values;
+    private final int [] pilots; //Pilot of every bucket
+    private final long seed;
+    private final MyHashTableImpl<K, V> overflow; //Keys sharing a hashCode with another key, null if none
+
+    /**
+     * Builds the perfect hash over the pairs.
+     * Executes in O(N log N) expected.
+     *
+     * @param keys distinct keys.
+     * @param values values paired with the keys of the same index.
+     * */
+    @SuppressWarnings("unchecked")
+    FrozenHashTable(Object [] keys, Object [] values) {
+
+        //Sort by hashCode, so keys sharing one are next to each other
+        long [] order = new long[keys.length];
+        for(int i = 0; i < keys.length; i++)
+            order[i] = (long) keys[i].hashCode() << 32 | i;
+        Arrays.sort(order);
+
+        int unique = 0;
+        MyHashTableImpl<K, V> overflow = null;
+        for(int i = 0; i < order.length; i++) {
+            if(i > 0 && (int) (order[i] >> 32) == (int) (order[i - 1] >> 32)) {
+                if(overflow == null)
+                    overflow = new MyHashTableImpl<>(0.5, new SeededHashStrategy(new PrimeHashStrategy()));
+                int index = (int) order[i];
+                overflow.insert((K) keys[index], (V) values[index]);
+            }
+            else
+                order[unique++] = order[i];
+        }
+        this.overflow = overflow;
+
+        int length = unique;
+        this.keys = new Object[length];
+        this.values = new Object[length];
+        this.pilots = new int[(length + BUCKET_SIZE - 1) / BUCKET_SIZE];
+
+        long seed = ThreadLocalRandom.current().nextLong();
+        for(int attempt = 1; !build(order, length, seed); attempt++) {
+            if(attempt == MAX_SEEDS)
+                throw new IllegalStateException("No perfect hash found for " + length + " keys.");
+            seed = ThreadLocalRandom.current().nextLong();
+        }
+        this.seed = seed;
+
+        for(int i = 0; i < length; i++) {
+            int index = (int) order[i];
+            long hash = mix(keys[index].hashCode(), seed);
+            int position = position(hash, pilots[bucket(hash)]);
+            this.keys[position] = keys[index];
+            this.values[position] = values[index];
+        }
+    }
+
+    /**
+     * Searches a pilot for every bucket, largest buckets first,
+     * while the slots are still mostly free.
+     *
+     * @param order keys with unique hash codes, as hashCode << 32 | index.
+     * @param length number of keys.
+     * @param seed seed of the key hashes.
+     * @return whether every bucket found a pilot.
+     * */
+    private boolean build(long [] order, int length, long seed) {
+
+        int bucketCount = pilots.length;
+
+        //Key hashes grouped by bucket with a counting sort
+        long [] hashes = new long[length];
+        int [] bucketStart = new int[bucketCount + 1];
+        for(int i = 0; i < length; i++)
+            bucketStart[bucket(mix((int) (order[i] >> 32), seed)) + 1]++;
+        for(int b = 0; b < bucketCount; b++)
+            bucketStart[b + 1] += bucketStart[b];
+        int [] fill = Arrays.copyOf(bucketStart, bucketCount);
+        for(int i = 0; i < length; i++) {
+            long hash = mix((int) (order[i] >> 32), seed);
+            hashes[fill[bucket(hash)]++] = hash;
+        }
+
+        //Buckets by decreasing size, also with a counting sort
+        int maxSize = 0;
+        for(int b = 0; b < bucketCount; b++)
+            maxSize = Math.max(maxSize, bucketStart[b + 1] - bucketStart[b]);
+        int [] sizeStart = new int[maxSize + 2];
+        for(int b = 0; b < bucketCount; b++)
+            sizeStart[maxSize - (bucketStart[b + 1] - bucketStart[b]) + 1]++;
+        for(int s = 0; s <= maxSize; s++)
+            sizeStart[s + 1] += sizeStart[s];
+        int [] buckets = new int[bucketCount];
+        for(int b = 0; b < bucketCount; b++)
+            buckets[sizeStart[maxSize - (bucketStart[b + 1] - bucketStart[b])]++] = b;
+
+        boolean [] taken = new boolean[length];
+        int [] positions = new int[maxSize];
+        long maxPilot = Math.min(Integer.MAX_VALUE, Math.max(1 << 16, 64L * length)); //The last single keys need about N tries
+
+        for(int bucket : buckets) {
+            int start = bucketStart[bucket];
+            int size = bucketStart[bucket + 1] - start;
+            if(size == 0)
+                break; //Only empty buckets are left
+
+            int pilot = 0;
+            while(!tryPilot(hashes, start, size, pilot, taken, positions)) {
+                if(++pilot > maxPilot)
+                    return false;
+            }
+            pilots[bucket] = pilot;
+        }
+        return true;
+    }
+
+    /**
+     * Takes the slots of the bucket keys under the pilot if they are
+     * all free and distinct, otherwise leaves every slot as it was.
+     *
+     * @return whether the slots were taken.
+     * */
+    private boolean tryPilot(long [] hashes, int start, int size, int pilot, boolean [] taken, int [] positions) {
+
+        for(int i = 0; i < size; i++) {
+            int position = position(hashes[start + i], pilot);
+            if(taken[position]) {
+                for(int j = 0; j < i; j++)
+                    taken[positions[j]] = false; //Release the slots taken so far
+                return false;
+            }
+            taken[position] = true;
+            positions[i] = position;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value associated with a given key.
+     * Executes one pilot read, one slot read and one equals.
+     *
+     * @param key specified key
+     * @return value associated with the key
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V contains(K key) {
+
+        if(keys.length > 0) {
+            long hash = mix(key.hashCode(), seed);
+            int position = position(hash, pilots[bucket(hash)]);
+            if(keys[position].equals(key))
+                return (V) values[position];
+        }
+        return overflow == null ? null : overflow.contains(key);
+    }
+
+    /**
+     * Not supported, the map is read-only.
+     *
+     * */
+    @Override
+    public void insert(K key, V value) {
+        throw new UnsupportedOperationException("A frozen map is read-only.");
+    }
+
+    /**
+     * Not supported, the map is read-only.
+     *
+     * */
+    @Override
+    public void delete(K key) {
+        throw new UnsupportedOperationException("A frozen map is read-only.");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Map.Entry<K, V>> entries() {
+
+        Stream<Map.Entry<K, V>> dense = IntStream.range(0, keys.length)
+                .mapToObj(position -> new MapEntryImpl<>((K) keys[position], (V) values[position]));
+        if(overflow == null)
+            return dense.iterator();
+        return Stream.concat(dense, overflow.stream()).iterator();
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return number of keys.
+     * */
+    public int size() {
+        return keys.length + (overflow == null ? 0 : overflow.size());
+    }
+
+    /**
+     * Returns the length of the dense arrays, equal to the number of keys
+     * outside of the overflow table.
+     *
+     * @return array length.
+     * */
+    @Override
+    public int getLengthOfArray() {
+        return keys.length;
+    }
+
+    private int bucket(long hash) {
+        return (int) (((hash >>> 32) * pilots.length) >>> 32); //Upper bits scaled to the bucket count
+    }
+
+    private int position(long hash, int pilot) {
+        long mixed = mix64(hash ^ (pilot * 0x9E3779B97F4A7C15L));
+        return (int) (((mixed & 0xFFFFFFFFL) * keys.length) >>> 32); //Lower bits scaled to the slot count
+    }
+
+    /**
+     * Spreads the hash code over 64 bits. Different hash codes
+     * give different results, the mix is a bijection.
+     *
+     * */
+    private static long mix(int hashCode, long seed) {
+        return mix64((hashCode & 0xFFFFFFFFL) ^ seed);
+    }
+
+    /**
+     * The splitmix64 finalizer.
+     *
+     * */
+    private static long mix64(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
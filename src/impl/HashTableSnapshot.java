@@ -0,0 +1,301 @@
+package impl;
+
+
+import interfaces.Codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Class used to separate the binary snapshot format of MyHashTableImpl.
+ * The snapshot keeps the slot layout, so loading places every key straight
+ * into its slot without hashing or probing. The file is read and written
+ * through a large buffer with bulk channel operations.
+ *
+ * Layout: [magic: 4][version: 4][strategy name length: 4][strategy class name: UTF-8]
+ * [max load factor: 8][array length: 4][size: 4][tombstones: 4],
+ * the live slot bitmap and the tombstone bitmap as (length + 63) / 64 longs each,
+ * then for every live slot in order [hash: 4][key length: 4][key][value length: 4][value].
+ * A null value has length -1 and no bytes.
+ */
+final class HashTableSnapshot {
+
+    private static final int MAGIC = 0x4D485331; //"MHS1"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * A private constructor, to prevent making instances.
+     */
+    private HashTableSnapshot() {
+
+    }
+
+    /**
+     * Writes the slot layout into a temporary file and moves it over the
+     * target, so a crash never leaves a partial snapshot behind.
+     *
+     * @param path target file.
+     * @param strategyName class name of the hash strategy of the table.
+     * @param maxLoadFactor maximum load factor of the table.
+     * @param keys slot keys, TOMBSTONE marks deleted slots.
+     * @param values slot values.
+     * @param hashes cached hashes of the slot keys.
+     * @param tombstone marker of deleted slots.
+     * @param size number of live keys.
+     * @param tombstones number of deleted slots.
+     * @param keyCodec encodes the keys.
+     * @param valueCodec encodes the values.
+     * */
+    @SuppressWarnings("unchecked")
+    static <K, V> void write(Path path, String strategyName, double maxLoadFactor,
+                             Object [] keys, Object [] values, int [] hashes, Object tombstone,
+                             int size, int tombstones, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            byte [] name = strategyName.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, 32 + name.length));
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(name.length).put(name)
+                    .putDouble(maxLoadFactor).putInt(keys.length).putInt(size).putInt(tombstones);
+
+            buffer = writeBitmap(channel, buffer, keys, tombstone, true);
+            buffer = writeBitmap(channel, buffer, keys, tombstone, false);
+
+            for(int i = 0; i < keys.length; i++) {
+                Object key = keys[i];
+                if(key == null || key == tombstone)
+                    continue;
+
+                int keyLength = keyCodec.sizeOf((K) key);
+                int valueLength = values[i] == null ? -1 : valueCodec.sizeOf((V) values[i]);
+                buffer = drain(channel, buffer, 12 + keyLength + Math.max(valueLength, 0));
+
+                buffer.putInt(hashes[i]).putInt(keyLength);
+                keyCodec.write(buffer, (K) key);
+                buffer.putInt(valueLength);
+                if(valueLength >= 0)
+                    valueCodec.write(buffer, (V) values[i]);
+            }
+
+            drain(channel, buffer, buffer.capacity());
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes a bitmap of the slots holding a key, or of the deleted slots.
+     *
+     * @param live selects the bitmap, true for keys, false for tombstones.
+     * @return buffer to continue with.
+     * */
+    private static ByteBuffer writeBitmap(FileChannel channel, ByteBuffer buffer, Object [] keys,
+                                          Object tombstone, boolean live) throws IOException {
+
+        long word = 0;
+        for(int i = 0; i < keys.length; i++) {
+            boolean set = live ? keys[i] != null && keys[i] != tombstone : keys[i] == tombstone;
+            if(set)
+                word |= 1L << (i & 63);
+
+            if((i & 63) == 63 || i == keys.length - 1) {
+                buffer = drain(channel, buffer, Long.BYTES);
+                buffer.putLong(word);
+                word = 0;
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads a snapshot. Every key is put at the slot it was written from,
+     * deleted slots get the tombstone marker.
+     *
+     * @param path snapshot file.
+     * @param strategyName class name of the hash strategy of the loading table,
+     *                     or null if the caller checks the stored one itself.
+     * @param tombstone marker of deleted slots.
+     * @param keyCodec decodes the keys.
+     * @param valueCodec decodes the values.
+     * @return loaded layout.
+     * */
+    static <K, V> Layout read(Path path, String strategyName, Object tombstone,
+                              Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.flip(); //Nothing read yet
+
+            buffer = fill(channel, buffer, 12);
+            if(buffer.getInt() != MAGIC)
+                throw new IOException("Not a hash table snapshot: " + path);
+            int version = buffer.getInt();
+            if(version != VERSION)
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+
+            int nameLength = buffer.getInt();
+            if(nameLength < 0)
+                throw new IOException("Corrupt snapshot header: " + path);
+            buffer = fill(channel, buffer, nameLength + 20);
+            byte [] name = new byte[nameLength];
+            buffer.get(name);
+            String snapshotStrategy = new String(name, StandardCharsets.UTF_8);
+            if(strategyName != null && !snapshotStrategy.equals(strategyName))
+                throw new IOException("The snapshot was written with " + snapshotStrategy + ", not " + strategyName + ": " + path);
+
+            Layout layout = new Layout();
+            layout.strategyName = snapshotStrategy;
+            layout.maxLoadFactor = buffer.getDouble();
+            int length = buffer.getInt();
+            layout.size = buffer.getInt();
+            layout.tombstones = buffer.getInt();
+            if(length <= 0 || layout.size < 0 || layout.tombstones < 0 || layout.size + layout.tombstones > length)
+                throw new IOException("Corrupt snapshot header: " + path);
+
+            layout.keys = new Object[length];
+            layout.values = new Object[length];
+            layout.hashes = new int[length];
+
+            long [] live = new long[(length + 63) >>> 6];
+            long [] deleted = new long[live.length];
+            buffer = readBitmap(channel, buffer, live);
+            buffer = readBitmap(channel, buffer, deleted);
+
+            int count = 0;
+            int removed = 0;
+            for(int word = 0; word < live.length; word++) {
+                for(long bits = live[word]; bits != 0; bits &= bits - 1) {
+                    int position = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    if(position >= length)
+                        throw new IOException("Corrupt snapshot bitmap: " + path);
+
+                    buffer = fill(channel, buffer, 8);
+                    int hash = buffer.getInt();
+                    int keyLength = buffer.getInt();
+                    buffer = fill(channel, buffer, keyLength + 4);
+                    K key = keyCodec.read(buffer, keyLength);
+                    int valueLength = buffer.getInt();
+                    V value = null;
+                    if(valueLength >= 0) {
+                        buffer = fill(channel, buffer, valueLength);
+                        value = valueCodec.read(buffer, valueLength);
+                    }
+
+                    layout.keys[position] = key;
+                    layout.values[position] = value;
+                    layout.hashes[position] = hash;
+                    count++;
+                }
+
+                for(long bits = deleted[word] & ~live[word]; bits != 0; bits &= bits - 1) {
+                    int position = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    if(position >= length)
+                        throw new IOException("Corrupt snapshot bitmap: " + path);
+                    layout.keys[position] = tombstone;
+                    removed++;
+                }
+            }
+
+            if(count != layout.size || removed != layout.tombstones)
+                throw new IOException("Corrupt snapshot, the bitmaps do not match the header: " + path);
+            return layout;
+        }
+    }
+
+    private static ByteBuffer readBitmap(FileChannel channel, ByteBuffer buffer, long [] bitmap) throws IOException {
+
+        int word = 0;
+        while(word < bitmap.length) {
+            buffer = fill(channel, buffer, Long.BYTES);
+            int count = Math.min(bitmap.length - word, buffer.remaining() / Long.BYTES);
+            buffer.asLongBuffer().get(bitmap, word, count); //Bulk copy of the whole buffered part
+            buffer.position(buffer.position() + count * Long.BYTES);
+            word += count;
+        }
+        return buffer;
+    }
+
+    /**
+     * Makes sure the buffer has room for the given number of bytes,
+     * writing its content to the channel if it has not.
+     *
+     * @param channel written file.
+     * @param buffer buffer in write mode.
+     * @param needed number of bytes about to be put.
+     * @return buffer to continue with, larger if needed exceeds the capacity.
+     * */
+    private static ByteBuffer drain(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+
+        if(buffer.remaining() >= needed)
+            return buffer;
+
+        buffer.flip();
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+
+        return buffer.capacity() >= needed ? buffer : ByteBuffer.allocate(needed);
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given number of unread bytes,
+     * reading as much of the channel as fits if it does not.
+     *
+     * @param channel read file.
+     * @param buffer buffer in read mode.
+     * @param needed number of bytes about to be read.
+     * @return buffer to continue with, larger if needed exceeds the capacity.
+     * */
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+
+        if(needed < 0)
+            throw new IOException("Corrupt snapshot, negative length.");
+        if(buffer.remaining() >= needed)
+            return buffer;
+
+        if(buffer.capacity() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(needed);
+            larger.put(buffer);
+            buffer = larger;
+        }
+        else
+            buffer.compact();
+
+        while(buffer.position() < needed) {
+            if(channel.read(buffer) < 0)
+                throw new EOFException("The snapshot is truncated.");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Slot layout read from a snapshot.
+     *
+     * */
+    static final class Layout {
+
+        Object [] keys;
+        Object [] values;
+        int [] hashes;
+        String strategyName;
+        double maxLoadFactor;
+        int size;
+        int tombstones;
+    }
+}
@@ -0,0 +1,167 @@
+package impl;
+
+
+import interfaces.HashTableStatsMXBean;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Probe and rehash statistics of a MyHashTableImpl, published as a platform MXBean.
+ * The table updates the counters from its own thread and the MXBean reads them
+ * without synchronization, so a read while the table changes is approximate.
+ */
+public class HashTableStats implements HashTableStatsMXBean {
+
+    private static final int BUCKETS = 33; //Probe length 0 and one bucket per bit of an int
+
+    private final MyHashTableImpl<?, ?> table;
+    private final long[] histogram = new long[BUCKETS];
+    private long probes = 0;
+    private long totalProbeLength = 0;
+    private int maxProbeLength = 0;
+    private long rehashCount = 0;
+    private long totalRehashNanos = 0;
+    private long maxRehashNanos = 0;
+    private ObjectName registeredName;
+
+    HashTableStats(MyHashTableImpl<?, ?> table) {
+        this.table = table;
+    }
+
+    /**
+     * Records one probing sequence.
+     *
+     * @param length number of collisions before the key or a free slot was found.
+     * */
+    void recordProbe(int length) {
+        probes++;
+        totalProbeLength += length;
+        if(length > maxProbeLength)
+            maxProbeLength = length;
+        histogram[32 - Integer.numberOfLeadingZeros(length)]++;
+    }
+
+    /**
+     * Records one rehash or clean up.
+     *
+     * @param nanos duration of the rehash.
+     * */
+    void recordRehash(long nanos) {
+        rehashCount++;
+        totalRehashNanos += nanos;
+        if(nanos > maxRehashNanos)
+            maxRehashNanos = nanos;
+    }
+
+    /**
+     * Registers the statistics with the platform MBean server
+     * as impl:type=MyHashTableImpl,name=[name].
+     *
+     * @param name distinguishes the table from other registered tables.
+     * */
+    public void register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("impl:type=MyHashTableImpl,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            registeredName = objectName;
+        }
+        catch(JMException e) {
+            throw new IllegalStateException("The statistics can not be registered as " + name + ".", e);
+        }
+    }
+
+    /**
+     * Removes the statistics from the platform MBean server, if registered.
+     *
+     * */
+    public void unregister() {
+        if(registeredName == null)
+            return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            registeredName = null;
+        }
+        catch(JMException e) {
+            throw new IllegalStateException("The statistics can not be unregistered.", e);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return table.size();
+    }
+
+    @Override
+    public int getLengthOfArray() {
+        return table.getLengthOfArray();
+    }
+
+    @Override
+    public int getTombstones() {
+        return table.getTombstones();
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return table.getLoadFactor();
+    }
+
+    @Override
+    public double getWastedToLiveRatio() {
+        int size = table.size();
+        return size == 0 ? Double.POSITIVE_INFINITY : (double)(table.getLengthOfArray() - size) / size;
+    }
+
+    @Override
+    public long getProbes() {
+        return probes;
+    }
+
+    @Override
+    public double getAverageProbeLength() {
+        return probes == 0 ? 0 : (double)totalProbeLength / probes;
+    }
+
+    @Override
+    public int getMaxProbeLength() {
+        return maxProbeLength;
+    }
+
+    @Override
+    public long[] getProbeLengthHistogram() {
+        return histogram.clone();
+    }
+
+    @Override
+    public long getRehashCount() {
+        return rehashCount;
+    }
+
+    @Override
+    public long getTotalRehashNanos() {
+        return totalRehashNanos;
+    }
+
+    @Override
+    public long getMaxRehashNanos() {
+        return maxRehashNanos;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(histogram, 0);
+        probes = 0;
+        totalProbeLength = 0;
+        maxProbeLength = 0;
+        rehashCount = 0;
+        totalRehashNanos = 0;
+        maxRehashNanos = 0;
+    }
+}
@@ -0,0 +1,294 @@
+package impl;
+
+
+import interfaces.ArrayWithPublishedSize;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Primitive int to int map using a hash table with quadratic probing collision technique.
+ * Keys and values are kept in flat arrays, so no boxing and no entry objects are needed.
+ */
+public class IntIntHashTable implements ArrayWithPublishedSize {
+
+    /**
+     * Default length for underlying arrays.
+     * Must remain a prime.
+     *
+     * */
+    private static final int DEFAULT_ARRAY_LENGTH = 13;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private final double maxLoadFactor;
+    private int currentSize = 0;
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      underlying arrays before rehash is required.
+     * */
+    public IntIntHashTable(double maxLoadFactor) {
+
+        if(maxLoadFactor <= 0 || maxLoadFactor > 0.5)
+            throw new IllegalArgumentException("The load factor must be between 0 and 0.5, quadratic probing reaches only half of the slots.");
+
+        this.maxLoadFactor = maxLoadFactor;
+        allocateArrays(DEFAULT_ARRAY_LENGTH);
+    }
+
+    /**
+     * A public constructor. Presizes the arrays, so the expected
+     * number of keys is inserted without a rehash.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      underlying arrays before rehash is required.
+     * @param expectedSize number of keys the arrays are sized for.
+     * */
+    public IntIntHashTable(double maxLoadFactor, int expectedSize) {
+
+        if(maxLoadFactor <= 0 || maxLoadFactor > 0.5)
+            throw new IllegalArgumentException("The load factor must be between 0 and 0.5, quadratic probing reaches only half of the slots.");
+        if(expectedSize < 0)
+            throw new IllegalArgumentException("The expected size can not be negative.");
+
+        this.maxLoadFactor = maxLoadFactor;
+        allocateArrays(nextPrime((int)Math.max(DEFAULT_ARRAY_LENGTH, Math.floor(expectedSize / maxLoadFactor) + 1)));
+    }
+
+    public double getLoadFactor() {
+        return (double)currentSize / keys.length;
+    }
+
+    /**
+     * Returns the number of keys in the table.
+     *
+     * @return number of keys.
+     * */
+    public int size() {
+        return currentSize;
+    }
+
+    /**
+     * Initializes underlying arrays.
+     *
+     * @param newLength sets the length of the arrays.
+     * */
+    private void allocateArrays(int newLength) {
+        keys = new int[newLength];
+        values = new int[newLength];
+        used = new boolean[newLength];
+    }
+
+    /**
+     * Inserts the (key, value) pair into the table.
+     * If the key already exists, its value is replaced.
+     *
+     * @param key sets key
+     * @param value pairs a value with a given key
+     * */
+    public void put(int key, int value) {
+
+        int position = findPos(key); //Quadratic probing to find position
+        values[position] = value;
+
+        if(!used[position])
+            occupy(position, key);
+    }
+
+    /**
+     * Adds delta to the value associated with the key, treating
+     * a missing key as 0. Uses a single probe sequence.
+     *
+     * @param key specified key
+     * @param delta value added to the current value
+     * @return the new value associated with the key
+     * */
+    public int add(int key, int delta) {
+
+        int position = findPos(key);
+        int value = values[position] + delta; //Slot value is 0 if the key does not exist yet
+        values[position] = value;
+
+        if(!used[position])
+            occupy(position, key);
+        return value;
+    }
+
+    /**
+     * Increments the value associated with the key by one.
+     *
+     * @param key specified key
+     * @return the new value associated with the key
+     * */
+    public int increment(int key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Returns the value associated with a given key.
+     *
+     * @param key specified key
+     * @param defaultValue returned if the key does not exist
+     * @return value associated with the key or defaultValue
+     * */
+    public int get(int key, int defaultValue) {
+
+        int position = findPos(key);
+        return used[position] ? values[position] : defaultValue;
+    }
+
+    /**
+     * Checks if the key exists in the table.
+     *
+     * @param key specified key
+     * @return whether the key exists
+     * */
+    public boolean containsKey(int key) {
+        return used[findPos(key)];
+    }
+
+    /**
+     * Marks the free slot as used by the key and rehashes
+     * in case when the load factor is reached.
+     *
+     * @param position free slot returned by findPos
+     * @param key key stored at the position
+     * */
+    private void occupy(int position, int key) {
+
+        keys[position] = key;
+        used[position] = true;
+        currentSize++;
+
+        if(getLoadFactor() >= maxLoadFactor)
+            rehash();
+    }
+
+    /**
+     * Finds the position of the key or the free slot where it
+     * belongs by using quadratic probing when collision occurs.
+     *
+     * @param key is given to the hash function to find the position.
+     * @return position for the key.
+     * */
+    private int findPos(int key) {
+
+        int offset = 1; //Probing offset
+        int position = hash(key);
+
+        //Executes until it finds a free position or the key
+        while(used[position] && keys[position] != key) {
+
+            //Quadratic probing of positions, in long so the sum can not overflow
+            position = (int) ((position + (long) offset) % keys.length);
+            offset += 2;
+        }
+
+        return position;
+    }
+
+    /**
+     * Finds the position for the given key.
+     * The sign bit is cleared so negative keys map inside the array.
+     *
+     * @param key specified key.
+     * @return home position for the key.
+     * */
+    private int hash(int key) {
+        return (key & 0x7fffffff) % keys.length;
+    }
+
+    /**
+     * Reallocates memory for the arrays and moves every key
+     * into its new position. The new arrays are at least 2n + 1 in size.
+     * Executes in O(N).
+     *
+     * */
+    private void rehash() {
+
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        allocateArrays(nextPrime(2 * oldKeys.length));
+
+        //Keys are distinct, so they are placed directly into free slots
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldUsed[i]) {
+                int position = findPos(oldKeys[i]);
+                keys[position] = oldKeys[i];
+                values[position] = oldValues[i];
+                used[position] = true;
+            }
+        }
+    }
+
+    /**
+     * Finds next prime number from a given value.
+     *
+     * @param num value from which the search begins.
+     * @return next prime number.
+     * */
+    private int nextPrime(int num) {
+
+        if(num % 2 == 0)
+            num++;
+        while(!isPrime(num))
+            num += 2;
+
+        return num;
+    }
+
+    /**
+     * Check if the number is prime.
+     * Executes in O( sqrt(N) ).
+     *
+     * @param num checked value.
+     * @return whether number is a prime.
+     * */
+    private boolean isPrime(int num) {
+
+        for(int i = 3; i * i <= num; i += 2) {
+            if(num % i == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if both tables hold the same keys with the same values.
+     * Executes in O(N).
+     *
+     * @param other table to compare with.
+     * @return true if both tables have identical content.
+     * */
+    public boolean sameContent(IntIntHashTable other) {
+
+        if(currentSize != other.currentSize)
+            return false;
+
+        for(int i = 0; i < keys.length; i++) {
+            if(used[i]) {
+                int position = other.findPos(keys[i]);
+                if(!other.used[position] || other.values[position] != values[i])
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the length of the arrays.
+     *
+     * @return array length.
+     * */
+    @Override
+    public int getLengthOfArray() {
+        return keys.length;
+    }
+}
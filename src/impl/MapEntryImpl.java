@@ -1,6 +1,9 @@
 package impl;
 
-public class MapEntryImpl<K, V> {
+import java.util.Map;
+import java.util.Objects;
+
+public class MapEntryImpl<K, V> implements Map.Entry<K, V> {
 
     private K key;
     private V value;
@@ -22,9 +25,28 @@ public class MapEntryImpl<K, V> {
 	return value;
     }
 
-    public void setValue(V value) {
+    public V setValue(V value) {
+	V previous = this.value;
 	this.value = value;
+	return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+	if(!(o instanceof Map.Entry))
+	    return false;
+	Map.Entry<?, ?> other = (Map.Entry<?, ?>)o;
+	return Objects.equals(key, other.getKey()) && Objects.equals(value, other.getValue());
     }
 
+    @Override
+    public int hashCode() {
+	return Objects.hashCode(key) ^ Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+	return key + "=" + value;
+    }
 
 }
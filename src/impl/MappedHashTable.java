@@ -0,0 +1,527 @@
+package impl;
+
+
+import interfaces.ArrayWithPublishedSize;
+import interfaces.Codec;
+import interfaces.MyMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Implements a map using a hash table with quadratic probing collision technique
+ * whose slots live in a memory-mapped file instead of the heap.
+ * Keys and values are encoded by codecs into fixed-width slots, so reopening
+ * an existing file only maps it again; nothing is re-inserted.
+ *
+ * File layout: a header followed by the slot array. Every slot is
+ * [state: 1 byte][hash: 4][key length: 4][key: keyWidth][value length: 4][value: valueWidth].
+ */
+public class MappedHashTable<K, V> implements MyMap<K, V>, ArrayWithPublishedSize, Closeable {
+
+    /**
+     * Default length for the slot array of a new file.
+     * Must remain a prime.
+     *
+     * */
+    private static final int DEFAULT_ARRAY_LENGTH = 13;
+
+    private static final int MAGIC = 0x4D485431; //"MHT1"
+    private static final int VERSION = 1;
+
+    //Header fields, every one is an int
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int LENGTH_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int USED_OFFSET = 16;
+    private static final int KEY_WIDTH_OFFSET = 20;
+    private static final int VALUE_WIDTH_OFFSET = 24;
+    private static final int HEADER_SIZE = 32;
+
+    //Slot states
+    private static final byte FREE = 0;
+    private static final byte OCCUPIED = 1;
+    private static final byte DELETED = 2;
+
+    private final Path path;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int keyWidth;
+    private final int valueWidth;
+    private final int slotSize;
+    private final double maxLoadFactor;
+    private final ByteBuffer keyBuffer; //Encoded key of the current operation
+    private final ByteBuffer valueBuffer; //Encoded value of the current operation
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int length; //Number of slots
+    private int currentSize; //Live keys
+    private int used; //Live keys and deleted slots
+
+    /**
+     * A public constructor. Opens the table stored in the file or
+     * creates a new one if the file does not exist.
+     *
+     * @param path file of the table.
+     * @param keyCodec encodes the keys.
+     * @param valueCodec encodes the values.
+     * @param keyWidth maximum number of bytes of an encoded key.
+     * @param valueWidth maximum number of bytes of an encoded value.
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      slot array before rehash is required.
+     * @throws IOException if the file can not be mapped or is not a table
+     *                     with the same widths.
+     * */
+    public MappedHashTable(Path path, Codec<K> keyCodec, Codec<V> valueCodec,
+                           int keyWidth, int valueWidth, double maxLoadFactor) throws IOException {
+
+        if(keyWidth <= 0 || valueWidth < 0)
+            throw new IllegalArgumentException("The key width must be positive and the value width must not be negative.");
+        if(maxLoadFactor <= 0 || maxLoadFactor > 0.5)
+            throw new IllegalArgumentException("The load factor must be between 0 and 0.5, quadratic probing reaches only half of the slots.");
+
+        this.path = path;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.keyWidth = keyWidth;
+        this.valueWidth = valueWidth;
+        this.slotSize = 1 + 4 + 4 + keyWidth + 4 + valueWidth;
+        this.maxLoadFactor = maxLoadFactor;
+        this.keyBuffer = ByteBuffer.allocate(keyWidth);
+        this.valueBuffer = ByteBuffer.allocate(valueWidth);
+
+        if(Files.exists(path) && Files.size(path) > 0)
+            openExisting();
+        else
+            create(path, DEFAULT_ARRAY_LENGTH);
+    }
+
+    /**
+     * Maps an existing file and validates its header.
+     *
+     * @throws IOException if the file is not a table with the same widths.
+     * */
+    private void openExisting() throws IOException {
+
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if(channel.size() < HEADER_SIZE)
+            throw closeAndFail("The file is too short to be a table: " + path);
+
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if(buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION)
+            throw closeAndFail("The file is not a table of a supported version: " + path);
+        if(buffer.getInt(KEY_WIDTH_OFFSET) != keyWidth || buffer.getInt(VALUE_WIDTH_OFFSET) != valueWidth)
+            throw closeAndFail("The table was created with different key or value widths: " + path);
+
+        length = buffer.getInt(LENGTH_OFFSET);
+        currentSize = buffer.getInt(SIZE_OFFSET);
+        used = buffer.getInt(USED_OFFSET);
+        if(channel.size() != fileSize(length))
+            throw closeAndFail("The file is truncated: " + path);
+    }
+
+    private IOException closeAndFail(String message) throws IOException {
+        channel.close();
+        return new IOException(message);
+    }
+
+    /**
+     * Creates an empty table in the file and maps it.
+     *
+     * @param file created file.
+     * @param newLength sets the number of slots.
+     * @throws IOException if the file can not be created.
+     * */
+    private void create(Path file, int newLength) throws IOException {
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(newLength)); //Zero filled, every slot is FREE
+        length = newLength;
+        currentSize = 0;
+        used = 0;
+
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(LENGTH_OFFSET, length);
+        buffer.putInt(KEY_WIDTH_OFFSET, keyWidth);
+        buffer.putInt(VALUE_WIDTH_OFFSET, valueWidth);
+        writeCounts();
+    }
+
+    /**
+     * Returns the size of a file with the given number of slots.
+     * A single mapping is limited to 2 GB.
+     *
+     * @param slots number of slots.
+     * @return file size in bytes.
+     * */
+    private long fileSize(int slots) {
+
+        long size = HEADER_SIZE + (long)slots * slotSize;
+        if(size > Integer.MAX_VALUE)
+            throw new IllegalStateException("The table does not fit into a single mapping.");
+        return size;
+    }
+
+    private void writeCounts() {
+        buffer.putInt(SIZE_OFFSET, currentSize);
+        buffer.putInt(USED_OFFSET, used);
+    }
+
+    public double getLoadFactor() {
+        return (double)currentSize / length;
+    }
+
+    /**
+     * Returns the number of keys in the table.
+     *
+     * @return number of keys.
+     * */
+    public int size() {
+        return currentSize;
+    }
+
+    /**
+     * Inserts the element into the table. If the key already exists,
+     * its value is replaced.
+     *
+     * @param key sets key
+     * @param value pairs a value with a given key
+     * */
+    @Override
+    public void insert(K key, V value) {
+
+        if(value == null)
+            throw new IllegalArgumentException("The value must not be null.");
+
+        int hash = encodeKey(key);
+        encode(valueCodec, value, valueBuffer, "value");
+
+        int position = findPos(hash);
+        if(stateAt(position) == OCCUPIED) {
+            writeValue(position); //Override the value if the key already exists
+            return;
+        }
+
+        int free = findFree(hash); //The key does not exist, a deleted slot may be reused
+        if(stateAt(free) == FREE)
+            used++;
+        writeSlot(free, hash);
+        currentSize++;
+        writeCounts();
+
+        if((double)used / length >= maxLoadFactor)
+            rehash();
+    }
+
+    /**
+     * Performs a usual deletion of a specified key.
+     * The slot is marked as deleted, so probing chains stay intact.
+     *
+     * @param key the key chosen for removal.
+     * */
+    @Override
+    public void delete(K key) {
+
+        int position = findPos(encodeKey(key));
+        if(stateAt(position) != OCCUPIED)
+            return;
+
+        buffer.put(slotOffset(position), DELETED);
+        currentSize--;
+        writeCounts();
+    }
+
+    /**
+     * Returns the value associated with a given key.
+     *
+     * @param key specified key
+     * @return value associated with the key or null
+     * */
+    @Override
+    public V contains(K key) {
+
+        int position = findPos(encodeKey(key));
+        if(stateAt(position) != OCCUPIED)
+            return null;
+
+        int offset = slotOffset(position) + 1 + 4 + 4 + keyWidth;
+        int valueLength = buffer.getInt(offset);
+        buffer.position(offset + 4);
+        return valueCodec.read(buffer, valueLength);
+    }
+
+    /**
+     * Returns an iterator over the entries, decoding every occupied slot.
+     *
+     * @return iterator over copies of the entries.
+     * */
+    @Override
+    public Iterator<Map.Entry<K, V>> entries() {
+        return IntStream.range(0, length)
+                .filter(position -> stateAt(position) == OCCUPIED)
+                .mapToObj(this::readEntry)
+                .iterator();
+    }
+
+    private Map.Entry<K, V> readEntry(int position) {
+
+        int offset = slotOffset(position) + 1 + 4;
+        int keyLength = buffer.getInt(offset);
+        buffer.position(offset + 4);
+        K key = keyCodec.read(buffer, keyLength);
+
+        offset += 4 + keyWidth;
+        int valueLength = buffer.getInt(offset);
+        buffer.position(offset + 4);
+        return new MapEntryImpl<>(key, valueCodec.read(buffer, valueLength));
+    }
+
+    /**
+     * Finds the position of the encoded key, or the free slot
+     * ending its probing chain, by using quadratic probing.
+     *
+     * @param hash hash of the encoded key.
+     * @return position of the key, or of a slot that is not occupied.
+     * */
+    private int findPos(int hash) {
+
+        int offset = 1;
+        int position = (hash & 0x7fffffff) % length;
+
+        for(int probes = 0; probes < length; probes++) {
+            byte state = stateAt(position);
+            if(state == FREE || (state == OCCUPIED && keyEquals(position, hash)))
+                return position;
+
+            position = probe(position, offset);
+            offset += 2;
+        }
+        return findFree(hash); //The chain has no free slot, the key does not exist
+    }
+
+    /**
+     * Finds the first free or deleted slot on the probing chain.
+     *
+     * @param hash hash of the encoded key.
+     * @return position for a new key.
+     * */
+    private int findFree(int hash) {
+
+        int offset = 1;
+        int position = (hash & 0x7fffffff) % length;
+
+        for(int probes = 0; probes < length; probes++) {
+            if(stateAt(position) != OCCUPIED)
+                return position;
+
+            position = probe(position, offset);
+            offset += 2;
+        }
+        throw new IllegalStateException("The probing chain has no free slot.");
+    }
+
+    private int probe(int position, int offset) {
+        return (int) ((position + (long) offset) % length);
+    }
+
+    private byte stateAt(int position) {
+        return buffer.get(slotOffset(position));
+    }
+
+    private int slotOffset(int position) {
+        return HEADER_SIZE + position * slotSize;
+    }
+
+    /**
+     * Compares the key stored in the slot with the encoded key.
+     *
+     * @param position slot position.
+     * @param hash hash of the encoded key.
+     * @return whether the keys are equal.
+     * */
+    private boolean keyEquals(int position, int hash) {
+
+        int offset = slotOffset(position) + 1;
+        if(buffer.getInt(offset) != hash || buffer.getInt(offset + 4) != keyBuffer.position())
+            return false;
+
+        offset += 8;
+        for(int i = 0; i < keyBuffer.position(); i++) {
+            if(buffer.get(offset + i) != keyBuffer.get(i))
+                return false;
+        }
+        return true;
+    }
+
+    private void writeSlot(int position, int hash) {
+
+        int offset = slotOffset(position);
+        buffer.put(offset, OCCUPIED);
+        buffer.putInt(offset + 1, hash);
+        buffer.putInt(offset + 5, keyBuffer.position());
+        buffer.position(offset + 9);
+        buffer.put(keyBuffer.array(), 0, keyBuffer.position());
+        writeValue(position);
+    }
+
+    private void writeValue(int position) {
+
+        int offset = slotOffset(position) + 1 + 4 + 4 + keyWidth;
+        buffer.putInt(offset, valueBuffer.position());
+        buffer.position(offset + 4);
+        buffer.put(valueBuffer.array(), 0, valueBuffer.position());
+    }
+
+    /**
+     * Encodes the key into the key buffer and hashes its bytes.
+     * The hash depends only on the bytes, so it stays valid across processes.
+     *
+     * @param key specified key.
+     * @return hash of the encoded key.
+     * */
+    private int encodeKey(K key) {
+
+        encode(keyCodec, key, keyBuffer, "key");
+
+        int hash = 0x811C9DC5; //FNV-1a
+        for(int i = 0; i < keyBuffer.position(); i++) {
+            hash ^= keyBuffer.get(i) & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    private static <T> void encode(Codec<T> codec, T value, ByteBuffer target, String name) {
+
+        target.clear();
+        try {
+            codec.write(target, value);
+        }
+        catch(BufferOverflowException e) {
+            throw new IllegalArgumentException("The encoded " + name + " is wider than " + target.capacity() + " bytes.");
+        }
+    }
+
+    /**
+     * Copies the occupied slots into a new file at least 2n + 1 slots long
+     * and replaces the table file with it. Deleted slots are dropped.
+     * Executes in O(N).
+     *
+     * */
+    private void rehash() {
+
+        MappedByteBuffer oldBuffer = buffer;
+        FileChannel oldChannel = channel;
+        int oldLength = length;
+        int size = currentSize;
+        int newLength = (double)size / oldLength >= maxLoadFactor / 2 ? nextPrime(2 * oldLength) : oldLength;
+        Path rehashed = path.resolveSibling(path.getFileName() + ".rehash");
+
+        try {
+            create(rehashed, newLength);
+            for(int i = 0; i < oldLength; i++) {
+                int oldOffset = HEADER_SIZE + i * slotSize;
+                if(oldBuffer.get(oldOffset) != OCCUPIED)
+                    continue;
+
+                int position = findFree(oldBuffer.getInt(oldOffset + 1)); //Keys are distinct, no need to compare
+                ByteBuffer slot = oldBuffer.duplicate();
+                slot.position(oldOffset).limit(oldOffset + slotSize);
+                buffer.position(slotOffset(position));
+                buffer.put(slot);
+            }
+            currentSize = size;
+            used = size;
+            writeCounts();
+            buffer.force();
+
+            oldChannel.close();
+            channel.close();
+            Files.move(rehashed, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            openExisting();
+        }
+        catch(IOException e) {
+            throw new IllegalStateException("Rehash of " + path + " failed.", e);
+        }
+    }
+
+    /**
+     * Finds next prime number from a given value.
+     *
+     * @param num value from which the search begins.
+     * @return next prime number.
+     * */
+    private int nextPrime(int num) {
+
+        if(num % 2 == 0)
+            num++;
+        while(!isPrime(num))
+            num += 2;
+
+        return num;
+    }
+
+    /**
+     * Check if the number is prime.
+     * Executes in O( sqrt(N) ).
+     *
+     * @param num checked value.
+     * @return whether number is a prime.
+     * */
+    private boolean isPrime(int num) {
+
+        for(int i = 3; i * i <= num; i += 2) {
+            if(num % i == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the changes of the mapped slots to the storage device.
+     *
+     * */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Returns the length of the slot array.
+     *
+     * @return array length.
+     * */
+    @Override
+    public int getLengthOfArray() {
+        return length;
+    }
+
+    /**
+     * Writes the changes to the storage device and closes the file.
+     *
+     * @throws IOException if the file can not be closed.
+     * */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
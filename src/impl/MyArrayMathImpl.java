@@ -4,6 +4,10 @@ package impl;
 import interfaces.ArrayMath;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
 
 /**
  * This class is for MyArrayMathImpl.
@@ -29,9 +33,23 @@ public class MyArrayMathImpl implements ArrayMath {
     private int outerIndex = 0;
     private int innerIndex = 0;
 
+    /**
+     * Shorter arrays are compared on the calling thread,
+     * splitting them costs more than it saves.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Number of elements counted between two checks of the mismatch flag.
+     */
+    private static final int CHECK_INTERVAL = 4096;
+
     /**
      * Checks if two arrays contain identical elements.
-     * Uses a map for comparison.
+     * Rejects most different arrays by their fingerprints, without a map.
+     * Otherwise counts the elements of the first array in one map and
+     * subtracts the elements of the second, stopping at the first element
+     * the second array holds more often than the first.
      * Executes in O(N).
      *
      * @param array1 first array
@@ -41,14 +59,49 @@ public class MyArrayMathImpl implements ArrayMath {
     @Override
     public boolean isSameCollection(int[] array1, int[] array2) {
 
+        if (array1.length != array2.length) //If lengths are not the same, return false
+            return false;
+
+        if (!sameFingerprint(array1, array2)) //O(N), no map needed
+            return false;
+
+        /*
+         * (key, value) := key is the number in the array
+         *                 value is the appearances in array1 minus the appearances in array2 so far
+         * */
+        IntIntHashTable table = new IntIntHashTable(0.5); //Grows with the distinct elements, not the length
+        for (int i : array1)
+            table.increment(i); //O(N)
+
+        for (int i : array2) {
+            if (table.add(i, -1) < 0) //array2 holds i more often, O(N)
+                return false;
+        }
+
+        //Same lengths and no count below zero, so every count is zero
+        return true;
+    }
+
+    /**
+     * Checks if two arrays contain identical elements.
+     * Counts both arrays in their own maps and compares the maps,
+     * without the fingerprint pre-check of isSameCollection.
+     * Executes in O(N).
+     *
+     * @param array1 first array
+     * @param array2 second array
+     * @return true if arrays are identical
+     */
+    public boolean isSameCollectionByTables(int[] array1, int[] array2) {
+
         if (array1.length != array2.length) //If lengths are not the same, return false
             return false;
 
         //Two maps created from arrays
-        MyHashTableImpl<Integer, Integer> table1 = createTable(array1); //O(N)
-        MyHashTableImpl<Integer, Integer> table2 = createTable(array2); //O(N)
+        IntIntHashTable table1 = createTable(array1); //O(N)
+        IntIntHashTable table2 = createTable(array2); //O(N)
 
-        return table1.compareTo(table2) == 0; //O(N)
+        return table1.sameContent(table2); //O(N)
     }
 
     /**
@@ -58,25 +111,207 @@ public class MyArrayMathImpl implements ArrayMath {
      * @param array specified array
      * @return new map
      */
-    private MyHashTableImpl<Integer, Integer> createTable(int[] array) {
+    private IntIntHashTable createTable(int[] array) {
 
         //Create and populate a new map
-        MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<>(0.5);
-        for (Integer i : array) {
+        IntIntHashTable table = new IntIntHashTable(0.5);
+        for (int i : array) {
             /*
              * (key, value) := key is the number in the array
              *                 value is the number of appearances in the array
              * */
-            Integer value = table.contains(i);
-            if (value != null)
-                table.insert(i, table.contains(i) + 1); //Increment number of appearances if already exists
-            else
-                table.insert(i, 1); //Otherwise set the number of appearances to 1
+            table.increment(i); //Number of appearances starts from 0 for a new key
         }
 
         return table;
     }
 
+    /**
+     * Checks if two arrays contain identical elements, using every thread of the
+     * common fork-join pool.
+     *
+     * @param array1 first array
+     * @param array2 second array
+     * @return true if arrays are identical
+     * @see #isSameCollectionParallel(int[], int[], ForkJoinPool)
+     */
+    public boolean isSameCollectionParallel(int[] array1, int[] array2) {
+        return isSameCollectionParallel(array1, array2, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Checks if two arrays contain identical elements, using the threads of the pool.
+     * Equal elements have equal mixed hashes, so both arrays are partitioned by the
+     * upper bits of the mixed hash and every partition is compared on its own:
+     * 1. every block of the arrays counts its elements per partition and adds up its fingerprints,
+     * 2. every block copies its elements into their partitions,
+     * 3. every partition counts in its own private map, like isSameCollection.
+     * The first partition finding a difference sets a shared flag, so the other
+     * partitions stop counting and the ones not started yet do not start.
+     * Executes in O(N / P) for P threads, with O(N) extra memory.
+     *
+     * @param array1 first array
+     * @param array2 second array
+     * @param pool runs the tasks
+     * @return true if arrays are identical
+     */
+    public boolean isSameCollectionParallel(int[] array1, int[] array2, ForkJoinPool pool) {
+
+        if (array1.length != array2.length)
+            return false;
+        if (array1.length < PARALLEL_THRESHOLD || pool.getParallelism() == 1)
+            return isSameCollection(array1, array2);
+
+        int length = array1.length;
+        int shift = 32 - Integer.numberOfLeadingZeros(4 * pool.getParallelism() - 1); //At least 4 partitions per thread, more even load
+        int partitions = 1 << shift;
+        int blocks = partitions;
+        int blockSize = (length + blocks - 1) / blocks;
+
+        //1. Partition sizes and fingerprints of every block
+        int[][] counts1 = new int[blocks][partitions];
+        int[][] counts2 = new int[blocks][partitions];
+        long[] sums = new long[blocks];
+        int[] xors = new int[blocks];
+        long[] mixedSums = new long[blocks];
+        pool.invoke(new RangeTask(0, blocks, null, block -> {
+            long sum = 0;
+            int xor = 0;
+            long mixed = 0;
+            for (int i = block * blockSize; i < Math.min(length, (block + 1) * blockSize); i++) {
+                long mixed1 = mix(array1[i]);
+                long mixed2 = mix(array2[i]);
+                counts1[block][(int) (mixed1 >>> (64 - shift))]++;
+                counts2[block][(int) (mixed2 >>> (64 - shift))]++;
+                sum += array1[i] - (long) array2[i];
+                xor ^= array1[i] ^ array2[i];
+                mixed += mixed1 - mixed2;
+            }
+            sums[block] = sum;
+            xors[block] = xor;
+            mixedSums[block] = mixed;
+        }));
+
+        long sum = 0;
+        int xor = 0;
+        long mixed = 0;
+        for (int block = 0; block < blocks; block++) {
+            sum += sums[block];
+            xor ^= xors[block];
+            mixed += mixedSums[block];
+        }
+        if (sum != 0 || xor != 0 || mixed != 0)
+            return false;
+
+        //Start of every partition, and of every block within it
+        int[] starts = new int[partitions + 1];
+        int[][] offsets1 = new int[blocks][partitions];
+        int[][] offsets2 = new int[blocks][partitions];
+        for (int partition = 0; partition < partitions; partition++) {
+            int position1 = starts[partition];
+            int position2 = starts[partition];
+            for (int block = 0; block < blocks; block++) {
+                offsets1[block][partition] = position1;
+                offsets2[block][partition] = position2;
+                position1 += counts1[block][partition];
+                position2 += counts2[block][partition];
+            }
+            if (position1 != position2) //A partition holds more elements of one array
+                return false;
+            starts[partition + 1] = position1;
+        }
+
+        //2. Copy the elements into their partitions
+        int[] partitioned1 = new int[length];
+        int[] partitioned2 = new int[length];
+        pool.invoke(new RangeTask(0, blocks, null, block -> {
+            int[] next1 = offsets1[block];
+            int[] next2 = offsets2[block];
+            for (int i = block * blockSize; i < Math.min(length, (block + 1) * blockSize); i++) {
+                partitioned1[next1[(int) (mix(array1[i]) >>> (64 - shift))]++] = array1[i];
+                partitioned2[next2[(int) (mix(array2[i]) >>> (64 - shift))]++] = array2[i];
+            }
+        }));
+
+        //3. Count every partition in its own map
+        AtomicBoolean mismatch = new AtomicBoolean(false);
+        pool.invoke(new RangeTask(0, partitions, mismatch, partition -> {
+            if (!sameCounts(partitioned1, partitioned2, starts[partition], starts[partition + 1], mismatch))
+                mismatch.set(true);
+        }));
+        return !mismatch.get();
+    }
+
+    /**
+     * Counts the elements of the first array in the range up and the ones of
+     * the second array down, in a map private to the calling thread.
+     *
+     * @param array1 first array
+     * @param array2 second array
+     * @param from first index of the range
+     * @param to one past the last index of the range
+     * @param mismatch set once any partition differs
+     * @return false if the ranges hold different elements, or another partition does
+     */
+    private boolean sameCounts(int[] array1, int[] array2, int from, int to, AtomicBoolean mismatch) {
+
+        IntIntHashTable table = new IntIntHashTable(0.5, to - from);
+        for (int start = from; start < to; start += CHECK_INTERVAL) {
+            if (mismatch.get())
+                return false;
+            for (int i = start; i < Math.min(to, start + CHECK_INTERVAL); i++)
+                table.increment(array1[i]);
+        }
+
+        for (int start = from; start < to; start += CHECK_INTERVAL) {
+            if (mismatch.get())
+                return false;
+            for (int i = start; i < Math.min(to, start + CHECK_INTERVAL); i++) {
+                if (table.add(array2[i], -1) < 0) //array2 holds array2[i] more often
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares order-independent fingerprints of both arrays, computed
+     * in one pass: the sum, the xor and the sum of mixed elements.
+     * Equal collections always have equal fingerprints, different
+     * ones almost never do.
+     * Executes in O(N).
+     *
+     * @param array1 first array
+     * @param array2 second array, as long as the first
+     * @return false if the arrays are certainly different
+     */
+    private boolean sameFingerprint(int[] array1, int[] array2) {
+
+        long sum = 0;
+        int xor = 0;
+        long mixed = 0;
+        for (int i = 0; i < array1.length; i++) {
+            sum += array1[i] - (long) array2[i];
+            xor ^= array1[i] ^ array2[i];
+            mixed += mix(array1[i]) - mix(array2[i]);
+        }
+        return sum == 0 && xor == 0 && mixed == 0;
+    }
+
+    /**
+     * Spreads the bits of the element (the splitmix64 finalizer), so the sum
+     * of mixed elements catches differences the plain sum and xor cancel out.
+     *
+     * @param element array element
+     * @return mixed element
+     */
+    private static long mix(int element) {
+        long x = element * 0x9E3779B97F4A7C15L;
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
     /**
      * Calculates squared distance between vectors by pairing elements
      * with respect to its order in the associated array.
@@ -320,4 +555,40 @@ public class MyArrayMathImpl implements ArrayMath {
     public int getOuterIndex() {
         return outerIndex;
     }
+
+    /**
+     * Runs the body for every index of a range, splitting the range in halves
+     * until every task has one index. Indexes not started yet are skipped
+     * once the cancel flag is set.
+     */
+    private static final class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final AtomicBoolean cancelled; //Null if the range is never cancelled
+        private final IntConsumer body;
+
+        private RangeTask(int from, int to, AtomicBoolean cancelled, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.cancelled = cancelled;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (cancelled != null && cancelled.get())
+                return;
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, cancelled, body), new RangeTask(middle, to, cancelled, body));
+        }
+    }
 }
@@ -0,0 +1,356 @@
+package impl;
+
+
+import interfaces.ArrayWithPublishedSize;
+import interfaces.HashStrategy;
+import interfaces.MyMap;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Size-bounded cache using a hash table with quadratic probing collision technique.
+ * The arrays never grow: when the cache holds the maximum number of entries, inserting
+ * a new key evicts another one chosen by the CLOCK algorithm. Every slot has an access
+ * bit in a side array; contains sets it, and the clock hand clears bits as it sweeps
+ * and evicts the first key whose bit is already clear.
+ */
+public class MyHashTableCache<K, V> implements MyMap<K, V>, ArrayWithPublishedSize {
+
+    /**
+     * Marks a slot whose key has been deleted or evicted.
+     * It never equals any other key, so probing continues past it.
+     *
+     * */
+    private static final Object TOMBSTONE = new Object();
+
+    /**
+     * Longest array the cache asks the strategy for,
+     * so every strategy finds a length that fits an int.
+     *
+     * */
+    private static final int MAX_ARRAY_LENGTH = 1 << 30;
+
+    private final Object [] keys;
+    private final Object [] values;
+    private final int [] hashes; //Cached strategy hash of the key in the same slot
+    private final boolean [] referenced; //Access bit of the key in the same slot
+    private final boolean [] unplaced; //Scratch bits of purgeTombstones, kept to avoid allocating
+    private final int maxEntries;
+    private final double maxLoadFactor;
+    private final HashStrategy strategy;
+    private int currentSize = 0;
+    private int tombstones = 0;
+    private int hand = 0; //Next slot inspected by the clock
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * A public constructor.
+     *
+     * @param maxEntries maximum number of cached keys.
+     * @param maxLoadFactor sets the maximum occupancy of the arrays,
+     *                      including tombstones, before they are cleaned up.
+     * */
+    public MyHashTableCache(int maxEntries, double maxLoadFactor) {
+        this(maxEntries, maxLoadFactor, MyHashTableImpl.defaultStrategy(maxLoadFactor));
+    }
+
+    /**
+     * A public constructor.
+     *
+     * @param maxEntries maximum number of cached keys.
+     * @param maxLoadFactor sets the maximum occupancy of the arrays,
+     *                      including tombstones, before they are cleaned up.
+     * @param strategy hashes the keys and defines the array length and probing.
+     * */
+    public MyHashTableCache(int maxEntries, double maxLoadFactor, HashStrategy strategy) {
+
+        if(maxEntries <= 0)
+            throw new IllegalArgumentException("The cache must hold at least one entry.");
+        if(maxLoadFactor <= 0 || maxLoadFactor > strategy.maxLoadFactor() || maxLoadFactor >= 1)
+            throw new IllegalArgumentException("The load factor must be between 0 and " + strategy.maxLoadFactor()
+                    + " for this strategy, and below 1.");
+
+        this.maxEntries = maxEntries;
+        this.maxLoadFactor = maxLoadFactor;
+        this.strategy = strategy;
+
+        //A full cache fills 3/4 of the allowed occupancy, tombstones may fill the rest
+        long minLength = (long)Math.ceil(maxEntries * 4.0 / (3 * maxLoadFactor)) + 1;
+        if(minLength > MAX_ARRAY_LENGTH)
+            throw new IllegalArgumentException("The cache can not hold " + maxEntries + " entries at this load factor.");
+        int length = strategy.capacityFor((int)minLength);
+        keys = new Object[length];
+        values = new Object[length];
+        hashes = new int[length];
+        referenced = new boolean[length];
+        unplaced = new boolean[length];
+    }
+
+    /**
+     * Inserts the element into the cache. If the key already exists, its value
+     * is replaced. Otherwise, a full cache first evicts one key.
+     *
+     * @param key sets key
+     * @param value pairs a value with a given key
+     * */
+    @Override
+    public void insert(K key, V value) {
+
+        int hash = strategy.hash(key);
+        int position = findInsertPos(key, hash);
+
+        if(isLive(keys[position])) {
+            values[position] = value; //Override the value if the key already exists
+            referenced[position] = true;
+            return;
+        }
+
+        if(currentSize == maxEntries)
+            evict(); //Only turns a key into a tombstone, the found position stays valid
+
+        if(keys[position] == TOMBSTONE)
+            tombstones--;
+        keys[position] = key;
+        values[position] = value;
+        hashes[position] = hash;
+        referenced[position] = false; //New keys survive one sweep only if they are read
+        currentSize++;
+
+        if((double)(currentSize + tombstones) / keys.length >= maxLoadFactor)
+            purgeTombstones();
+    }
+
+    /**
+     * Performs a usual deletion of a specified key.
+     *
+     * @param key the key chosen for removal.
+     * */
+    @Override
+    public void delete(K key) {
+
+        int position = findPos(key, strategy.hash(key));
+        if(keys[position] == null)
+            return;
+
+        removeAt(position);
+    }
+
+    /**
+     * Returns the value associated with a given key and marks the key as
+     * recently used. Does not allocate.
+     *
+     * @param key specified key
+     * @return value associated with the key, or null on a miss
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V contains(K key) {
+
+        int position = findPos(key, strategy.hash(key));
+        if(keys[position] == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        referenced[position] = true;
+        return (V) values[position];
+    }
+
+    /**
+     * Returns an iterator over the cached entries.
+     * Does not count as an access of the keys.
+     *
+     * @return iterator over copies of the entries.
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Map.Entry<K, V>> entries() {
+        return IntStream.range(0, keys.length)
+                .filter(position -> isLive(keys[position]))
+                .mapToObj(position -> (Map.Entry<K, V>) new MapEntryImpl<>((K) keys[position], (V) values[position]))
+                .iterator();
+    }
+
+    /**
+     * Sweeps the clock hand over the slots. A used key gets its access bit
+     * cleared and a second chance, the first unused key is evicted.
+     * Executes in O(N) in the worst case, O(1) amortized.
+     *
+     * */
+    private void evict() {
+
+        while(true) {
+            int position = hand;
+            hand = hand + 1 == keys.length ? 0 : hand + 1;
+
+            if(!isLive(keys[position]))
+                continue;
+            if(referenced[position]) {
+                referenced[position] = false;
+                continue;
+            }
+
+            removeAt(position);
+            evictions++;
+            return;
+        }
+    }
+
+    private void removeAt(int position) {
+        keys[position] = TOMBSTONE;
+        values[position] = null;
+        referenced[position] = false;
+        currentSize--;
+        tombstones++;
+    }
+
+    /**
+     * Finds the position of the key, or the free slot
+     * ending its probing chain, by using quadratic probing.
+     *
+     * @param key specified key.
+     * @param hash hash of the key.
+     * @return position of the key or of a free slot.
+     * */
+    private int findPos(K key, int hash) {
+
+        int step = 0;
+        int position = strategy.indexFor(hash, keys.length);
+        Object current;
+
+        while((current = keys[position]) != null && (hashes[position] != hash || !current.equals(key)))
+            position = strategy.nextProbe(position, ++step, keys.length);
+
+        return position;
+    }
+
+    /**
+     * Finds the position of the key, or the slot where it should be inserted:
+     * the first tombstone on the probing chain or the free slot ending it.
+     *
+     * @param key specified key.
+     * @param hash hash of the key.
+     * @return position of the key or of the slot for it.
+     * */
+    private int findInsertPos(K key, int hash) {
+
+        int step = 0;
+        int position = strategy.indexFor(hash, keys.length);
+        int reusable = -1;
+        Object current;
+
+        while((current = keys[position]) != null) {
+            if(current == TOMBSTONE) {
+                if(reusable < 0)
+                    reusable = position;
+            }
+            else if(hashes[position] == hash && current.equals(key))
+                return position;
+
+            position = strategy.nextProbe(position, ++step, keys.length);
+        }
+        return reusable >= 0 ? reusable : position;
+    }
+
+    /**
+     * Removes the tombstones in place. Every key is moved to the first slot
+     * of its probing chain not taken by an already placed key, swapping with
+     * a key not yet placed when needed, so no second set of arrays is used.
+     * Executes in O(N), at most once per N/3 evictions or deletes.
+     *
+     * */
+    private void purgeTombstones() {
+
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] == TOMBSTONE)
+                keys[i] = null;
+            unplaced[i] = keys[i] != null;
+        }
+        tombstones = 0;
+        hand = 0;
+
+        for(int i = 0; i < keys.length; i++) {
+            while(unplaced[i]) {
+                int step = 0;
+                int position = strategy.indexFor(hashes[i], keys.length);
+
+                //Placed keys never move again, so they are the only obstacles
+                while(keys[position] != null && !unplaced[position])
+                    position = strategy.nextProbe(position, ++step, keys.length);
+
+                if(position != i)
+                    swap(i, position); //An unplaced key from the target is handled next
+                unplaced[position] = false;
+                if(keys[i] == null)
+                    unplaced[i] = false;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+
+        Object key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+
+        Object value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+
+        int hash = hashes[i];
+        hashes[i] = hashes[j];
+        hashes[j] = hash;
+
+        boolean bit = referenced[i];
+        referenced[i] = referenced[j];
+        referenced[j] = bit;
+    }
+
+    private static boolean isLive(Object key) {
+        return key != null && key != TOMBSTONE;
+    }
+
+    /**
+     * Returns the number of cached keys.
+     *
+     * @return number of keys.
+     * */
+    public int size() {
+        return currentSize;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the length of the arrays.
+     *
+     * @return array length.
+     * */
+    @Override
+    public int getLengthOfArray() {
+        return keys.length;
+    }
+}
@@ -2,56 +2,475 @@ package impl;
 
 
 import interfaces.ArrayWithPublishedSize;
+import interfaces.Codec;
+import interfaces.HashStrategy;
 import interfaces.MyMap;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
 /**
  * @author Domagoj Trupeljak
  * @author Jacob Yousif
  * @version 1.0
  *
  * Implements a map using a hash table with quadratic probing collision technique.
+ * Keys, values and cached hash codes are kept in parallel arrays, so no entry
+ * object is allocated and probing compares the int hash before calling equals.
+ * Deleted keys leave a tombstone, so probing chains of other keys stay intact.
  */
 public class MyHashTableImpl<K, V> implements MyMap<K, V>, ArrayWithPublishedSize,Comparable<MyMap<K, V>> {
 
     /**
-     * Default length for underlying array.
-     * Must remain a prime.
+     * Default length for underlying arrays,
+     * rounded up to a length of the hash strategy.
      *
      * */
     private static final int DEFAULT_ARRAY_LENGTH = 13;
 
-    private MapEntryImpl<K, V> [] array;
+    /**
+     * Number of old array slots moved by each operation
+     * while an incremental rehash is in progress.
+     *
+     * */
+    private static final int MIGRATION_BATCH = 16;
+
+    /**
+     * Number of keys hashed ahead of probing by the batch operations.
+     *
+     * */
+    private static final int HASH_BLOCK = 64;
+
+    /**
+     * Probe sequences longer than this on insert are taken as a sign of
+     * colliding keys, and a seeded strategy is reseeded.
+     *
+     * */
+    private static final int PROBE_LIMIT = 64;
+
+    /**
+     * Number of reseeds allowed before the arrays grow again,
+     * so every reseed is paid for by O(N) inserts.
+     *
+     * */
+    private static final int MAX_RESEEDS = 3;
+
+    /**
+     * Marks a slot whose key has been deleted, or moved out of the old arrays.
+     * It never equals any other key, so probing continues past it.
+     *
+     * */
+    private static final Object TOMBSTONE = new Object();
+
+    private Object [] keys;
+    private Object [] values;
+    private int [] hashes; //Cached strategy hash of the key in the same slot
+    private Object [] oldKeys; //Non-null while an incremental rehash is in progress
+    private Object [] oldValues;
+    private int [] oldHashes;
+    private int migrateIndex = 0; //Next slot of the old arrays to be moved
     private final double maxLoadFactor;
+    private double minLoadFactor = 0; //Shrinking is disabled while 0
+    private final boolean incrementalRehash;
+    private HashStrategy strategy; //Replaced only by a reseed
+    private HashStrategy oldStrategy; //Non-null while the old arrays hold hashes of the previous seed
+    private boolean longProbe = false; //An insert probed more than PROBE_LIMIT slots
+    private int reseeds = 0; //Reseeds since the arrays last grew
     private int currentSize = 0;
+    private int tombstones = 0; //Tombstones in the current arrays, they count toward the load
+    private HashTableStats stats; //Null unless statistics are enabled
+    private BlockedBloomFilter bloomFilter; //Null unless the filter is enabled
 
     /**
      * A public constructor.
      *
      * @param maxLoadFactor sets the maximum capacity of the
-     *                      underlying array before rehash is required.
+     *                      underlying arrays before rehash is required.
      * */
     public MyHashTableImpl(double maxLoadFactor) {
+        this(maxLoadFactor, false);
+    }
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      underlying arrays before rehash is required.
+     * @param incrementalRehash if true, rehash keeps both arrays and moves
+     *                          a bounded batch of slots on every operation
+     *                          instead of copying the whole table at once.
+     * */
+    public MyHashTableImpl(double maxLoadFactor, boolean incrementalRehash) {
+        this(maxLoadFactor, incrementalRehash, defaultStrategy(maxLoadFactor));
+    }
+
+    /**
+     * A public constructor. Presizes the arrays, so the expected
+     * number of keys is inserted without any rehash.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      underlying arrays before rehash is required.
+     * @param expectedSize number of keys the table should hold.
+     * */
+    public MyHashTableImpl(double maxLoadFactor, int expectedSize) {
+        this(maxLoadFactor, expectedSize, defaultStrategy(maxLoadFactor));
+    }
+
+    /**
+     * A public constructor. Presizes the arrays, so the expected
+     * number of keys is inserted without any rehash.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      underlying arrays before rehash is required.
+     * @param expectedSize number of keys the table should hold.
+     * @param strategy hashes the keys and defines the array lengths and probing.
+     * */
+    public MyHashTableImpl(double maxLoadFactor, int expectedSize, HashStrategy strategy) {
+        this(maxLoadFactor, false, strategy, expectedSize);
+    }
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      underlying arrays before rehash is required.
+     * @param strategy hashes the keys and defines the array lengths and probing,
+     *                 for example {@link PrimeHashStrategy} or {@link PowerOfTwoHashStrategy}.
+     * */
+    public MyHashTableImpl(double maxLoadFactor, HashStrategy strategy) {
+        this(maxLoadFactor, false, strategy);
+    }
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      underlying arrays before rehash is required.
+     * @param incrementalRehash if true, rehash keeps both arrays and moves
+     *                          a bounded batch of slots on every operation
+     *                          instead of copying the whole table at once.
+     * @param strategy hashes the keys and defines the array lengths and probing.
+     * */
+    public MyHashTableImpl(double maxLoadFactor, boolean incrementalRehash, HashStrategy strategy) {
+        this(maxLoadFactor, incrementalRehash, strategy, 0);
+    }
+
+    /**
+     * Allocates the arrays once, sized for the expected number of keys.
+     *
+     * @param maxLoadFactor sets the maximum capacity of the
+     *                      underlying arrays before rehash is required.
+     * @param incrementalRehash if true, rehash is incremental.
+     * @param strategy hashes the keys and defines the array lengths and probing.
+     * @param expectedSize number of keys the table should hold, 0 for the default length.
+     * */
+    private MyHashTableImpl(double maxLoadFactor, boolean incrementalRehash, HashStrategy strategy, int expectedSize) {
+	    if(maxLoadFactor <= 0 || maxLoadFactor > strategy.maxLoadFactor())
+		    throw new IllegalArgumentException("The load factor must be between 0 and " + strategy.maxLoadFactor() + " for this strategy.");
+	    if(expectedSize < 0)
+		    throw new IllegalArgumentException("The expected size must not be negative.");
 	    this.maxLoadFactor = maxLoadFactor;
-	    allocateArray(DEFAULT_ARRAY_LENGTH);
+	    this.incrementalRehash = incrementalRehash;
+	    this.strategy = strategy;
+	    allocateArrays(lengthFor(expectedSize)); //Nothing is inserted yet, so no rehash is needed
+    }
+
+    /**
+     * Picks the strategy of the constructors without one. Prime lengths
+     * are kept up to 0.5, higher load factors need power of two lengths.
+     *
+     * @param maxLoadFactor load factor of the table.
+     * @return default strategy.
+     * */
+    static HashStrategy defaultStrategy(double maxLoadFactor) {
+        return maxLoadFactor <= 0.5 ? new PrimeHashStrategy() : new PowerOfTwoHashStrategy();
     }
 
     public double getLoadFactor() {
-        return (double)currentSize / array.length;
+        return (double)currentSize / keys.length;
     }
 
     /**
-     * Initializes underlying array.
+     * Returns the number of keys in the table.
      *
-     * @param newLength sets the length of the array.
+     * @return number of keys.
      * */
-    @SuppressWarnings("unchecked")
-    private void allocateArray(int newLength) {
-        array = new MapEntryImpl[newLength];
+    public int size() {
+        return currentSize;
+    }
+
+    int getTombstones() {
+        return tombstones;
+    }
+
+    /**
+     * Enables shrinking of the arrays when deletes bring the load factor
+     * below the minimum. The arrays shrink to half of the maximum load factor,
+     * so at least O(N) inserts or deletes pass before the next resize.
+     *
+     * @param minLoadFactor minimum load factor, 0 disables shrinking.
+     *                      Must be below half of the maximum load factor.
+     * */
+    public void setMinLoadFactor(double minLoadFactor) {
+
+        if(minLoadFactor < 0 || 2 * minLoadFactor >= maxLoadFactor)
+            throw new IllegalArgumentException("The minimum load factor must be between 0 and half of the maximum load factor.");
+
+        this.minLoadFactor = minLoadFactor;
+    }
+
+    public double getMinLoadFactor() {
+        return minLoadFactor;
+    }
+
+    /**
+     * Shrinks the arrays to the smallest length that holds
+     * the current keys below the maximum load factor.
+     * Executes in O(N).
+     *
+     * */
+    public void trimToSize() {
+
+        finishMigration();
+
+        int newLength = lengthFor(currentSize);
+        if(newLength < keys.length)
+            resize(newLength);
+        else if(tombstones > 0)
+            cleanUp();
+    }
+
+    /**
+     * Grows the arrays, so the given number of keys
+     * fits without another rehash.
+     * Executes in O(N) if the arrays grow, otherwise in O(1).
+     *
+     * @param expectedSize number of keys the table should hold.
+     * */
+    public void ensureCapacity(int expectedSize) {
+
+        if(expectedSize < 0)
+            throw new IllegalArgumentException("The expected size must not be negative.");
+
+        int newLength = lengthFor(expectedSize);
+        if(newLength > keys.length) {
+            finishMigration();
+            resize(newLength);
+        }
+    }
+
+    /**
+     * Returns the smallest array length of the strategy that holds
+     * the given number of keys below the maximum load factor.
+     *
+     * @param size number of keys.
+     * @return array length, at least the default one.
+     * */
+    private int lengthFor(int size) {
+        return strategy.capacityFor((int)Math.max(DEFAULT_ARRAY_LENGTH, Math.floor(size / maxLoadFactor) + 1));
+    }
+
+    /**
+     * Starts recording probe lengths and rehash timings. While disabled,
+     * the table only checks a null field per operation.
+     *
+     * @return statistics of the table, can be registered as an MXBean.
+     * */
+    public HashTableStats enableStatistics() {
+        if(stats == null)
+            stats = new HashTableStats(this);
+        return stats;
+    }
+
+    /**
+     * Keeps a blocked Bloom filter of the key hashes, so most lookups of absent
+     * keys return after checking one cache line instead of probing.
+     * Inserts add to the filter, rehash and tombstone clean up build a new one,
+     * which drops the deleted keys.
+     *
+     * */
+    public void enableBloomFilter() {
+        if(bloomFilter == null)
+            rebuildBloomFilter();
+    }
+
+    /**
+     * Builds the filter from the cached hashes of the current and old arrays,
+     * sized for the keys the current arrays hold before the next rehash.
+     * Executes in O(N).
+     *
+     * */
+    private void rebuildBloomFilter() {
+
+        BlockedBloomFilter filter = new BlockedBloomFilter((int) (keys.length * maxLoadFactor) + 1);
+        for(int i = 0; i < keys.length; i++) {
+            if(isLive(keys[i]))
+                filter.add(hashes[i]);
+        }
+        if(oldKeys != null) {
+            for(int i = migrateIndex; i < oldKeys.length; i++) {
+                if(isLive(oldKeys[i]))
+                    filter.add(oldStrategy == null ? oldHashes[i] : strategy.hash(oldKeys[i]));
+            }
+        }
+        bloomFilter = filter;
+    }
+
+    /**
+     * Writes a binary snapshot of the slot layout into the file.
+     * Tombstones are kept, so the snapshot loads into exactly the same layout.
+     * The key hash codes must not change between processes,
+     * which holds for String, Integer and Long.
+     * Executes in O(N).
+     *
+     * @param path snapshot file, replaced atomically.
+     * @param keyCodec encodes the keys, see {@link Codecs}.
+     * @param valueCodec encodes the values, see {@link Codecs}.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalStateException if the table uses a {@link SeededHashStrategy},
+     *                               whose hashes differ in every process.
+     * */
+    public void save(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+
+        if(strategy instanceof SeededHashStrategy)
+            throw new IllegalStateException("A table with a seeded hash strategy can not be saved.");
+
+        finishMigration();
+        HashTableSnapshot.write(path, strategy.getClass().getName(), maxLoadFactor,
+                keys, values, hashes, TOMBSTONE, currentSize, tombstones, keyCodec, valueCodec);
+    }
+
+    /**
+     * Loads a snapshot written by save from a table built without a strategy.
+     * The strategy is the default one of the stored load factor, so it is
+     * the one the saved table was built with.
+     *
+     * @param path snapshot file.
+     * @param keyCodec decodes the keys.
+     * @param valueCodec decodes the values.
+     * @return loaded table.
+     * @throws IOException if the file cannot be read, is not a valid snapshot
+     *                     or was written with a strategy other than the default one.
+     * */
+    public static <K, V> MyHashTableImpl<K, V> load(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+
+        HashTableSnapshot.Layout layout = HashTableSnapshot.read(path, null, TOMBSTONE, keyCodec, valueCodec);
+        return fromLayout(path, layout, defaultStrategy(layout.maxLoadFactor));
     }
 
     /**
-     * Inserts the element into the table by adding a
-     * new (key, value) entry into an array.
+     * Loads a snapshot written by save. Every key goes straight back into
+     * its slot, so nothing is hashed, probed or rehashed.
+     * Executes in O(N).
+     *
+     * @param path snapshot file.
+     * @param keyCodec decodes the keys.
+     * @param valueCodec decodes the values.
+     * @param strategy hash strategy of the saved table, of the same class.
+     * @return loaded table.
+     * @throws IOException if the file cannot be read, is not a valid snapshot
+     *                     or was written with another strategy class.
+     * */
+    public static <K, V> MyHashTableImpl<K, V> load(Path path, Codec<K> keyCodec, Codec<V> valueCodec,
+                                                  HashStrategy strategy) throws IOException {
+
+        HashTableSnapshot.Layout layout = HashTableSnapshot.read(path, strategy.getClass().getName(),
+                TOMBSTONE, keyCodec, valueCodec);
+        return fromLayout(path, layout, strategy);
+    }
+
+    /**
+     * Builds a table around the slots of a snapshot.
+     *
+     * @param path snapshot file, for the error messages.
+     * @param layout slots read from the snapshot.
+     * @param strategy hash strategy of the loading table.
+     * @return loaded table.
+     * @throws IOException if the snapshot does not fit the strategy.
+     * */
+    private static <K, V> MyHashTableImpl<K, V> fromLayout(Path path, HashTableSnapshot.Layout layout,
+                                                         HashStrategy strategy) throws IOException {
+
+        if(!layout.strategyName.equals(strategy.getClass().getName()))
+            throw new IOException("The snapshot was written with " + layout.strategyName + ", not " + strategy.getClass().getName() + ": " + path);
+        if(strategy.capacityFor(layout.keys.length) != layout.keys.length)
+            throw new IOException("Corrupt snapshot, invalid array length: " + path);
+        if(!(layout.maxLoadFactor > 0 && layout.maxLoadFactor <= strategy.maxLoadFactor()))
+            throw new IOException("Corrupt snapshot, invalid load factor: " + path);
+
+        MyHashTableImpl<K, V> table = new MyHashTableImpl<>(layout.maxLoadFactor, false, strategy);
+        table.keys = layout.keys;
+        table.values = layout.values;
+        table.hashes = layout.hashes;
+        table.currentSize = layout.size;
+        table.tombstones = layout.tombstones;
+        return table;
+    }
+
+    /**
+     * Returns a read-only copy of the table built with a minimal perfect hash,
+     * so every lookup reads exactly one slot. Later changes of this table
+     * are not seen by the copy.
+     * Executes in O(N log N) expected.
+     *
+     * @return frozen copy of the table.
+     * */
+    public FrozenHashTable<K, V> freeze() {
+
+        Object [] liveKeys = new Object[currentSize];
+        Object [] liveValues = new Object[currentSize];
+        int [] count = new int[1];
+        forEach((key, value) -> {
+            liveKeys[count[0]] = key;
+            liveValues[count[0]++] = value;
+        });
+        return new FrozenHashTable<>(liveKeys, liveValues);
+    }
+
+    /**
+     * Returns an independent table with the same layout.
+     * Only clones the arrays, keys and values are shared.
+     * Executes in O(N).
+     *
+     * @return copy of the table.
+     * */
+    MyHashTableImpl<K, V> copy() {
+
+        finishMigration();
+
+        MyHashTableImpl<K, V> copy = new MyHashTableImpl<>(maxLoadFactor, incrementalRehash, strategy);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.hashes = hashes.clone();
+        copy.currentSize = currentSize;
+        copy.tombstones = tombstones;
+        copy.minLoadFactor = minLoadFactor;
+        copy.bloomFilter = bloomFilter == null ? null : bloomFilter.copy();
+        return copy;
+    }
+
+    /**
+     * Initializes underlying arrays.
+     *
+     * @param newLength sets the length of the arrays.
+     * */
+    private void allocateArrays(int newLength) {
+        keys = new Object[newLength];
+        values = new Object[newLength];
+        hashes = new int[newLength];
+    }
+
+    /**
+     * Inserts the element into the table by storing the
+     * (key, value) pair and the key hash into the arrays.
      *
      * @param key sets key
      * @param value pairs a value with a given key
@@ -59,133 +478,485 @@ public class MyHashTableImpl<K, V> implements MyMap<K, V>, ArrayWithPublishedSiz
     @Override
     public void insert(K key, V value) {
 
-        int position = findPos(key); //Quadratic probing to find position
-        MapEntryImpl<K, V> entry = array[position];
+        migrateSlots();
+
+        int hash = strategy.hash(key);
+        int position = findOrMove(key, hash); //Quadratic probing to find position
 
-        if(entry != null) {
-            array[position].setValue(value); //Override the value and return if the key already exists
+        if(isLive(keys[position])) {
+            values[position] = value; //Override the value and return if the key already exists
             return;
         }
 
-        array[position] = new MapEntryImpl<>(key, value); //If the key does not exist, create a new entry at found position
+        addAt(position, key, hash, value); //If the key does not exist, store it at found position
+    }
+
+    /**
+     * Stores a new key into the slot returned by findOrMove
+     * and rehashes in case when the load factor is reached.
+     *
+     * @param position free slot or tombstone.
+     * @param key stored key.
+     * @param hash hash code of the key.
+     * @param value stored value.
+     * */
+    private void addAt(int position, K key, int hash, V value) {
+
+        if(keys[position] == TOMBSTONE)
+            tombstones--; //Reuse the first tombstone on the probing chain
+
+        place(position, key, hash, value);
         currentSize++;
+        if(bloomFilter != null)
+            bloomFilter.add(hash);
 
-        double currentLoadFactor = getLoadFactor(); //Rehash in case when load factor is reached
-        if(currentLoadFactor >= maxLoadFactor)
+        //Rehash in case when load factor is reached, tombstones occupy slots as well
+        if((double)(currentSize + tombstones) / keys.length >= maxLoadFactor)
             rehash();
 
+        if(longProbe)
+            reseed();
+    }
+
+    /**
+     * Rehashes every key with a new seed after a long probe sequence, so keys
+     * crafted to collide under the old seed spread again. Does nothing for
+     * strategies without a seed, or after MAX_RESEEDS reseeds until the arrays grow.
+     * Executes in O(N), or in O(1) when rehash is incremental and the keys
+     * are rehashed as {@link #migrateSlots()} moves them.
+     *
+     * */
+    private void reseed() {
+
+        longProbe = false;
+        if(reseeds >= MAX_RESEEDS)
+            return;
+
+        HashStrategy reseeded = strategy.reseed();
+        if(reseeded == strategy)
+            return;
+
+        finishMigration(); //The old arrays hold hashes of the old seed
+        reseeds++;
+
+        if(incrementalRehash) {
+            //Keys are rehashed with the new seed as they are moved, so the latency stays bounded
+            oldStrategy = strategy;
+            strategy = reseeded;
+            resize(keys.length);
+            return;
+        }
+
+        strategy = reseeded;
+
+        for(int i = 0; i < keys.length; i++) {
+            if(isLive(keys[i]))
+                hashes[i] = strategy.hash(keys[i]);
+        }
+        purgeTombstones(); //Places every key by its new hash
+    }
+
+    /**
+     * Returns the hash a key has in the old arrays, which differs from
+     * its current one only while a reseed is being migrated.
+     *
+     * @param key specified key.
+     * @param hash current hash of the key.
+     * @return hash of the key in the old arrays.
+     * */
+    private int oldHash(K key, int hash) {
+        return oldStrategy == null ? hash : oldStrategy.hash(key);
+    }
+
+    /**
+     * Leaves a tombstone in the slot of a key, so the probing chains
+     * through this slot stay intact.
+     *
+     * @param position slot of the removed key.
+     * */
+    private void removeAt(int position) {
+
+        keys[position] = TOMBSTONE;
+        values[position] = null;
+        currentSize--;
+        tombstones++;
+
+        //Shrink when the table is sparse, the resize drops the tombstones as well
+        if(oldKeys == null && (double)currentSize / keys.length < minLoadFactor) {
+            int newLength = lengthFor(2 * currentSize);
+            if(newLength < keys.length) {
+                resize(newLength);
+                return;
+            }
+        }
+
+        //Clean up when half of the allowed occupancy is dead, needs O(N) deletes in between
+        if(tombstones >= keys.length * maxLoadFactor / 2)
+            cleanUp();
     }
 
     /**
-     * Finds the position for the new element in the array
+     * Finds the key in the current arrays. While an incremental rehash is in
+     * progress, a key found only in the old arrays is moved into the slot
+     * where it belongs in the current ones.
+     *
+     * @param key specified key.
+     * @param hash hash code of the key.
+     * @return position of the key, or of the slot for it if the key is not live there.
+     * */
+    private int findOrMove(K key, int hash) {
+
+        int position = findInsertPos(key, hash);
+        if(isLive(keys[position]) || oldKeys == null)
+            return position;
+
+        int oldPosition = findPos(oldKeys, oldHashes, key, oldHash(key, hash)); //The key may not be moved yet
+        if(oldKeys[oldPosition] != null) {
+            if(keys[position] == TOMBSTONE)
+                tombstones--;
+            place(position, oldKeys[oldPosition], hash, oldValues[oldPosition]); //Move the key now, the size does not change
+            oldKeys[oldPosition] = TOMBSTONE;
+            oldValues[oldPosition] = null;
+        }
+        return position;
+    }
+
+    /**
+     * Stores the key into a free slot of the current arrays.
+     *
+     * @param position free slot.
+     * @param key stored key.
+     * @param hash hash code of the key.
+     * @param value stored value.
+     * */
+    private void place(int position, Object key, int hash, Object value) {
+        keys[position] = key;
+        values[position] = value;
+        hashes[position] = hash;
+    }
+
+    /**
+     * Finds the position for the new element in the arrays
      * by using quadratic probing when collision occurs.
      *
+     * @param keys probed key array, either the current or the old one.
+     * @param hashes hash array belonging to the key array.
      * @param key is given to the hash function to find
      *            the new position for the element.
+     * @param hash hash code of the key.
      * @return new position for the element.
      * */
-    private int findPos(K key) {
-
-        int offset = 1; //Probing offset
-        int position = hash(key); //Find hashcode of a given key
+    private int findPos(Object [] keys, int [] hashes, K key, int hash) {
 
-        //Executes until it finds a new position or a key duplicate
-        while(array[position] != null && !array[position].getKey().equals(key)) {
+        int step = 0; //Probing step
+        int position = strategy.indexFor(hash, keys.length); //Find home position of a given key
+        Object current;
 
-            //Quadratic probing of positions
-            position += offset;
-            offset += 2;
+        //Executes until it finds a new position or a key duplicate, equals is called only on a hash match
+        while((current = keys[position]) != null && (hashes[position] != hash || !current.equals(key))) {
 
-            //If probing sets the value out of bounds, subtract by length of array
-            if(position >= array.length)
-                position -= array.length;
+            //Quadratic (or triangular) probing of positions, the strategy keeps them inside the array
+            position = strategy.nextProbe(position, ++step, keys.length);
         }
 
-        //If the key is duplicate, array[position] is != null ( used with insert "if(entry != null) )
+        if(stats != null)
+            stats.recordProbe(step);
+
+        //If the key is duplicate, keys[position] is != null ( used with insert "if(keys[position] != null) )
         return position;
     }
 
     /**
-     * Finds the position for the given key by performing a hash function.
+     * Finds the position of the key in the current arrays, or the slot where
+     * it should be inserted. That is the first tombstone on the probing chain
+     * if there is one, otherwise the free slot ending the chain.
      *
-     * @param key used for hashCode() value.
-     * @return new position for the element.
+     * @param key specified key.
+     * @param hash hash code of the key.
+     * @return position of the key or of the slot for it.
      * */
-    private int hash(K key) {
-        return Math.abs(key.hashCode()) % array.length;
+    private int findInsertPos(K key, int hash) {
+
+        int step = 0;
+        int position = strategy.indexFor(hash, keys.length);
+        int reusable = -1; //First tombstone on the probing chain
+        Object current;
+
+        while((current = keys[position]) != null) {
+            if(current == TOMBSTONE) {
+                if(reusable < 0)
+                    reusable = position;
+            }
+            else if(hashes[position] == hash && current.equals(key))
+                break;
+
+            position = strategy.nextProbe(position, ++step, keys.length);
+        }
+
+        if(stats != null)
+            stats.recordProbe(step);
+        longProbe = step > PROBE_LIMIT; //Handled once an insert is complete, cleared by the next probe
+        return current == null && reusable >= 0 ? reusable : position;
     }
 
     /**
-     * Reallocates memory for the array and uses a new hash function
-     * to populate it. The new array is at least 2n + 1 in size.
-     * Executes in O(N).
+     * Finds the first free slot of the current arrays for a key
+     * that is known to be absent. Does not compare keys.
+     *
+     * @param hash hash code of the key.
+     * @return free position.
+     * */
+    private int findFree(int hash) {
+
+        int step = 0;
+        int position = strategy.indexFor(hash, keys.length);
+
+        while(keys[position] != null) {
+            position = strategy.nextProbe(position, ++step, keys.length);
+        }
+        return position;
+    }
+
+    /**
+     * Reallocates memory for the arrays and uses a new hash function
+     * to populate them. The new arrays are at least 2n + 1 in size.
+     * Executes in O(N), or in O(1) when rehash is incremental and the
+     * keys are moved later by {@link #migrateSlots()}.
      *
      * */
     private void rehash() {
 
-        MapEntryImpl<K, V> [] oldArray = array; //Save old values
+        finishMigration(); //Previous incremental rehash must be completed first
+
+        //If mostly tombstones fill the arrays, cleaning them up is enough
+        if((double)currentSize / keys.length < maxLoadFactor / 2) {
+            cleanUp();
+            return;
+        }
 
-        //New array (size is defined by multiplying old length with 2 and finding the next prime value from that point)
-        allocateArray(nextPrime(2 * oldArray.length));
-        currentSize = 0;
+        //New arrays (size is defined by multiplying old length with 2 and finding the next length of the strategy from that point)
+        resize(strategy.capacityFor(2 * keys.length));
+    }
 
-        //Use old values to populate newly allocated array
-        for (MapEntryImpl<K, V> entry : oldArray)
-            if (entry != null)
-                insert(entry.getKey(), entry.getValue());
+    /**
+     * Removes the tombstones of the current arrays. Rearranges the keys
+     * in place, or starts an incremental rehash to the same length when
+     * rehash is incremental, so the latency stays bounded.
+     *
+     * */
+    private void cleanUp() {
 
+        finishMigration();
+        if(incrementalRehash)
+            resize(keys.length);
+        else
+            purgeTombstones();
     }
 
     /**
-     * Finds next prime number from a given value.
-     * Executes in O( sqrt(N) ).
+     * Reallocates the arrays with a new length and moves every key into them,
+     * either at once or in batches when rehash is incremental.
+     * Executes in O(N), or in O(1) when rehash is incremental.
      *
-     * @param num value from which the search begins.
-     * @return next prime number.
+     * @param newLength sets the length of the new arrays.
      * */
-    private int nextPrime(int num) {
+    private void resize(int newLength) {
+
+        RehashEvent event = new RehashEvent();
+        event.begin();
+        long start = System.nanoTime();
 
-        if(num % 2 == 0)
-            num++;
-        while(!isPrime(num))
-            num += 2;
+        //Save old values
+        Object [] oldKeys = keys;
+        Object [] oldValues = values;
+        int [] oldHashes = hashes;
 
-        return num;
+        if(newLength > keys.length)
+            reseeds = 0;
+        allocateArrays(newLength);
+        tombstones = 0; //Tombstones are not moved
+
+        if(incrementalRehash) {
+            //Both arrays stay live, the keys are moved in batches
+            this.oldKeys = oldKeys;
+            this.oldValues = oldValues;
+            this.oldHashes = oldHashes;
+            migrateIndex = 0;
+        }
+        else {
+            //Use old values to populate newly allocated arrays, the cached hashes make it a plain copy
+            for(int i = 0; i < oldKeys.length; i++)
+                if(oldKeys[i] != null && oldKeys[i] != TOMBSTONE)
+                    place(findFree(oldHashes[i]), oldKeys[i], oldHashes[i], oldValues[i]);
+        }
+
+        if(bloomFilter != null)
+            rebuildBloomFilter();
+        recordRehash(event, start, oldKeys.length);
     }
 
     /**
-     * Check if the number is prime.
-     * Executes in O( sqrt(N) ).
+     * Records a finished rehash or clean up in the statistics, if enabled,
+     * and commits its flight recorder event, if recorded.
      *
-     * @param num checked value.
-     * @return whether number is a prime.
+     * @param event event begun with the rehash.
+     * @param start System.nanoTime() at the beginning of the rehash.
+     * @param oldLength length of the arrays before the rehash.
      * */
-    private boolean isPrime(int num) {
+    private void recordRehash(RehashEvent event, long start, int oldLength) {
 
-        for(int i = 2; i < Math.sqrt(num); i++) {
-            if(num % i == 0)
-                return false;
+        if(stats != null)
+            stats.recordRehash(System.nanoTime() - start);
+
+        event.end();
+        if(event.shouldCommit()) {
+            event.oldLength = oldLength;
+            event.newLength = keys.length;
+            event.size = currentSize;
+            event.incremental = oldKeys != null;
+            event.commit();
         }
-        return true;
+    }
+
+    /**
+     * Removes every tombstone and moves the keys within the same arrays,
+     * so each key again sits at the first free position of its probing chain.
+     * A key whose target slot holds another key that is not placed yet swaps
+     * with it and the displaced key is placed next.
+     * Executes in O(N).
+     *
+     * */
+    private void purgeTombstones() {
 
+        RehashEvent event = new RehashEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        boolean [] unplaced = new boolean[keys.length];
+        for(int i = 0; i < keys.length; i++) {
+            if(keys[i] == TOMBSTONE) {
+                keys[i] = null;
+                values[i] = null;
+            }
+            else if(keys[i] != null)
+                unplaced[i] = true;
+        }
+        tombstones = 0;
+
+        for(int i = 0; i < keys.length; i++) {
+            while(unplaced[i]) {
+                int hash = hashes[i];
+                int step = 0;
+                int position = strategy.indexFor(hash, keys.length);
+
+                //Placed keys never move again, so they are the only obstacles
+                while(keys[position] != null && !unplaced[position]) {
+                    position = strategy.nextProbe(position, ++step, keys.length);
+                }
+
+                if(position == i) {
+                    unplaced[i] = false; //Already at its target
+                }
+                else if(keys[position] == null) {
+                    place(position, keys[i], hash, values[i]);
+                    keys[i] = null;
+                    values[i] = null;
+                    unplaced[i] = false;
+                }
+                else {
+                    //Swap with the unplaced key at the target and continue with that key
+                    Object key = keys[i];
+                    Object value = values[i];
+                    place(i, keys[position], hashes[position], values[position]);
+                    place(position, key, hash, value);
+                    unplaced[position] = false;
+                }
+            }
+        }
+
+        if(bloomFilter != null)
+            rebuildBloomFilter();
+        recordRehash(event, start, keys.length);
+    }
+
+    /**
+     * Moves a bounded batch of slots from the old arrays into the current ones.
+     * Does nothing if no incremental rehash is in progress.
+     * Executes in O(1).
+     *
+     * */
+    private void migrateSlots() {
+
+        if(oldKeys == null)
+            return;
+
+        int end = Math.min(migrateIndex + MIGRATION_BATCH, oldKeys.length);
+        for(; migrateIndex < end; migrateIndex++) {
+            Object key = oldKeys[migrateIndex];
+            if(key != null && key != TOMBSTONE) {
+                int hash = oldStrategy == null ? oldHashes[migrateIndex] : strategy.hash(key);
+                place(findFree(hash), key, hash, oldValues[migrateIndex]); //The key is not in the current arrays yet
+                oldKeys[migrateIndex] = TOMBSTONE;
+                oldValues[migrateIndex] = null;
+            }
+        }
+
+        if(migrateIndex == oldKeys.length) {
+            //Every key is moved, release the old arrays
+            oldKeys = null;
+            oldValues = null;
+            oldHashes = null;
+            oldStrategy = null;
+        }
+    }
+
+    /**
+     * Moves all remaining slots of an incremental rehash.
+     * Executes in O(N).
+     *
+     * */
+    private void finishMigration() {
+        while(oldKeys != null)
+            migrateSlots();
+    }
+
+    /**
+     * Checks if the slot content is a key.
+     *
+     * @param key slot content.
+     * @return false for free slots and tombstones.
+     * */
+    private static boolean isLive(Object key) {
+        return key != null && key != TOMBSTONE;
     }
 
     /**
      * Performs a usual deletion of a specified key.
-     * Executes in O(1) for load factor <= 0.5.
+     * The slot keeps a tombstone until the next rehash or clean up.
+     * Executes in O(1) amortized for load factor <= 0.5.
      *
      * @param key the key chosen for removal.
      * */
     @Override
     public void delete(K key) {
 
-        int position = findPos(key); //Find the position of a key
-        if(array[position] == null)
+        migrateSlots();
+
+        int hash = strategy.hash(key);
+        int position = findPos(keys, hashes, key, hash); //Find the position of a key
+        if(keys[position] == null) {
+            if(oldKeys != null) {
+                position = findPos(oldKeys, oldHashes, key, oldHash(key, hash)); //The key may not be moved yet
+                if(oldKeys[position] != null) {
+                    oldKeys[position] = TOMBSTONE; //Keeps the probing chain of the old arrays intact
+                    oldValues[position] = null;
+                    currentSize--;
+                }
+            }
             return; //Return if the key does not exist
+        }
 
-        //Otherwise, set the value to null and decrement size
-        array[position] = null;
-        currentSize--;
+        removeAt(position); //Otherwise, leave a tombstone and decrement size
     }
 
     /**
@@ -198,43 +969,383 @@ public class MyHashTableImpl<K, V> implements MyMap<K, V>, ArrayWithPublishedSiz
     @Override
     public V contains(K key) {
 
-        int position = findPos(key); //Find the position of the key
-        if(array[position] != null) {
-            if(array[position].getKey().equals(key))
-                return array[position].getValue(); //Get the element if it exists and values match
+        migrateSlots();
+        return lookup(key, strategy.hash(key));
+    }
+
+    /**
+     * Finds the value of the key in the current arrays,
+     * and in the old ones while an incremental rehash is in progress.
+     *
+     * @param key specified key
+     * @param hash hash code of the key
+     * @return value associated with the key
+     * */
+    @SuppressWarnings("unchecked")
+    private V lookup(K key, int hash) {
+
+        if(bloomFilter != null && !bloomFilter.mightContain(hash))
+            return null; //Certainly absent
+
+        int position = findPos(keys, hashes, key, hash); //Find the position of the key
+        if(keys[position] != null)
+            return (V) values[position]; //Get the element if it exists, findPos already matched the key
+
+        if(oldKeys != null) {
+            position = findPos(oldKeys, oldHashes, key, oldHash(key, hash)); //The key may not be moved yet
+            if(oldKeys[position] != null)
+                return (V) oldValues[position];
         }
         return null; //If element does not exist, return null
     }
 
     /**
-     * Returns the length of the array.
+     * Inserts all pairs, like insert called for every index. The arrays are
+     * grown once up front, and the keys are hashed a block at a time before
+     * the block is probed, so hashing and the probing memory accesses of
+     * consecutive keys do not interleave.
+     *
+     * @param keys inserted keys
+     * @param values values paired with the keys of the same index
+     * */
+    public void insertAll(K [] keys, V [] values) {
+
+        if(keys.length != values.length)
+            throw new IllegalArgumentException("Every key needs exactly one value.");
+
+        //Sized as if every key is new, capped so the sum cannot overflow
+        ensureCapacity((int)Math.min(Integer.MAX_VALUE, (long)currentSize + keys.length));
+
+        int [] block = new int[Math.min(HASH_BLOCK, keys.length)];
+        for(int start = 0; start < keys.length; start += HASH_BLOCK) {
+            int end = Math.min(start + HASH_BLOCK, keys.length);
+
+            HashStrategy hashedWith = strategy;
+            for(int i = start; i < end; i++)
+                block[i - start] = strategy.hash(keys[i]); //The hash does not depend on the array length
+
+            for(int i = start; i < end; i++) {
+                migrateSlots();
+
+                int hash = strategy == hashedWith ? block[i - start] : strategy.hash(keys[i]); //A reseed changes the hashes
+                int position = findOrMove(keys[i], hash);
+                if(isLive(this.keys[position]))
+                    this.values[position] = values[i];
+                else
+                    addAt(position, keys[i], hash, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Looks up all keys, like contains called for every index. The keys are
+     * hashed a block at a time before the block is probed, so the independent
+     * lookups of a block can overlap their cache misses.
+     *
+     * @param keys specified keys
+     * @param out receives the value of every key at the same index, or null
+     * @return number of keys found
+     * */
+    public int containsAll(K [] keys, V [] out) {
+
+        if(out.length < keys.length)
+            throw new IllegalArgumentException("The output array is shorter than the keys.");
+
+        int found = 0;
+        int [] block = new int[Math.min(HASH_BLOCK, keys.length)];
+        for(int start = 0; start < keys.length; start += HASH_BLOCK) {
+            int end = Math.min(start + HASH_BLOCK, keys.length);
+
+            for(int i = start; i < end; i++)
+                block[i - start] = strategy.hash(keys[i]);
+
+            migrateSlots(); //Lookups do not add keys, one batch per block keeps the migration going
+            for(int i = start; i < end; i++) {
+                V value = lookup(keys[i], block[i - start]);
+                out[i] = value;
+                if(value != null)
+                    found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the value associated with a given key, or the default value.
+     * Executes in O(1) for load factor <= 0.5.
+     *
+     * @param key specified key
+     * @param defaultValue returned if the key does not exist
+     * @return value associated with the key or defaultValue
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(K key, V defaultValue) {
+
+        migrateSlots();
+
+        int hash = strategy.hash(key);
+        int position = findOrMove(key, hash);
+        return isLive(keys[position]) ? (V) values[position] : defaultValue;
+    }
+
+    /**
+     * Inserts the value if the key has no value yet.
+     * Resolves the slot with a single probing sequence.
+     *
+     * @param key specified key
+     * @param value inserted value
+     * @return the current value, or null if the value was inserted
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(K key, V value) {
+
+        migrateSlots();
+
+        int hash = strategy.hash(key);
+        int position = findOrMove(key, hash);
+
+        if(!isLive(keys[position])) {
+            addAt(position, key, hash, value);
+            return null;
+        }
+        V current = (V) values[position];
+        if(current == null)
+            values[position] = value; //A key mapped to null has no value yet
+        return current;
+    }
+
+    /**
+     * Replaces the value of the key with the result of the remapping function,
+     * deleting the key if the result is null. The slot is resolved with a single
+     * probing sequence and updated in place.
+     *
+     * @param key specified key
+     * @param remapping computes the new value from the key and the current value or null
+     * @return the new value
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+
+        migrateSlots();
+
+        int hash = strategy.hash(key);
+        int position = findOrMove(key, hash);
+        boolean exists = isLive(keys[position]);
+        V value = remapping.apply(key, exists ? (V) values[position] : null);
+
+        if(exists) {
+            if(value == null)
+                removeAt(position);
+            else
+                values[position] = value; //Update in place
+        }
+        else if(value != null)
+            addAt(position, key, hash, value);
+        return value;
+    }
+
+    /**
+     * Inserts the value if the key has no value yet, otherwise replaces the
+     * current value with the result of the remapping function, deleting the key
+     * if the result is null. The slot is resolved with a single probing sequence.
+     *
+     * @param key specified key
+     * @param value inserted or merged value
+     * @param remapping combines the current value with the given one
+     * @return the new value
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) {
+
+        migrateSlots();
+
+        int hash = strategy.hash(key);
+        int position = findOrMove(key, hash);
+
+        if(!isLive(keys[position])) {
+            addAt(position, key, hash, value);
+            return value;
+        }
+
+        V current = (V) values[position];
+        V merged = current == null ? value : remapping.apply(current, value);
+        if(merged == null)
+            removeAt(position);
+        else
+            values[position] = merged; //Update in place
+        return merged;
+    }
+
+    /**
+     * Returns an iterator over the entries. Finishes an incremental rehash
+     * first, the iterator then walks the slot arrays directly.
+     * Changes made during the iteration may or may not be seen.
+     *
+     * @return iterator over copies of the entries.
+     * */
+    @Override
+    public Iterator<Map.Entry<K, V>> entries() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Returns an iterator over the keys without allocating an entry per key.
+     *
+     * @return iterator over the keys.
+     * */
+    @Override
+    public Iterator<K> keys() {
+        finishMigration();
+        return Spliterators.iterator(new SlotSpliterator<K, V, K>(keys, values, 0, keys.length, currentSize, (key, value) -> key));
+    }
+
+    /**
+     * Calls the action for every pair, walking the slot arrays.
+     * Executes in O(N).
+     *
+     * @param action called with every key and its value.
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+
+        finishMigration();
+
+        for(int i = 0; i < keys.length; i++) {
+            if(isLive(keys[i]))
+                action.accept((K) keys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * Returns a spliterator over the entries that splits the slot arrays
+     * by index range, so parallel streams need no intermediate copy.
+     *
+     * @return spliterator over copies of the entries.
+     * */
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        finishMigration();
+        return new SlotSpliterator<K, V, Map.Entry<K, V>>(keys, values, 0, keys.length, currentSize, MapEntryImpl::new);
+    }
+
+    /**
+     * Spliterator over a range of slots. Splitting halves the range
+     * and the size estimate, only the whole table has an exact size.
+     *
+     * */
+    private static final class SlotSpliterator<K, V, T> implements Spliterator<T> {
+
+        private final Object [] keys;
+        private final Object [] values;
+        private final BiFunction<K, V, T> element; //Creates the element of a live slot
+        private int index; //Next slot
+        private final int fence; //One past the last slot
+        private int estimate; //Live keys in the range, exact until split
+        private boolean sized;
+
+        private SlotSpliterator(Object [] keys, Object [] values, int index, int fence, int estimate, BiFunction<K, V, T> element) {
+            this.keys = keys;
+            this.values = values;
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.element = element;
+            this.sized = index == 0 && fence == keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+
+            while(index < fence) {
+                int position = index++;
+                if(isLive(keys[position])) {
+                    action.accept(element.apply((K) keys[position], (V) values[position]));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+
+            for(; index < fence; index++) {
+                if(isLive(keys[index]))
+                    action.accept(element.apply((K) keys[index], (V) values[index]));
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+
+            int middle = (index + fence) >>> 1;
+            if(middle <= index)
+                return null;
+
+            //The prefix goes to the caller, this spliterator keeps the suffix
+            estimate >>>= 1;
+            sized = false;
+            SlotSpliterator<K, V, T> prefix = new SlotSpliterator<>(keys, values, index, middle, estimate, element);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL | (sized ? SIZED : 0);
+        }
+    }
+
+    /**
+     * Returns the length of the arrays.
      *
      * @return array length.
      * */
     @Override
     public int getLengthOfArray() {
-        return array.length;
+        return keys.length;
     }
 
     /**
-     * Compare to another map.
+     * Compare to another map. The maps are equal if they hold the same
+     * keys with equal values, whatever their lengths and slot layouts.
      * Executes in O(N).
      *
      * @param o defines the element to compare with.
-     * @return 1 if true
-     *         0 if false
+     * @return 0 if both maps hold the same pairs
+     *         1 otherwise
      * */
     @Override
+    @SuppressWarnings("unchecked")
     public int compareTo(MyMap<K, V> o) {
 
-        for(int i = 0; i < array.length; i++) {
-            MapEntryImpl<K, V> first = array[i];
-            MapEntryImpl<K, V> second = ((MyHashTableImpl<K, V>)o).array[i];
-            if(first != null && second != null) {
-                if(!first.getKey().equals(second.getKey()) ||
-                        !first.getValue().equals(second.getValue()))
-                    return 1;
-            }
+        int otherSize;
+        if(o instanceof MyHashTableImpl)
+            otherSize = ((MyHashTableImpl<K, V>)o).size();
+        else {
+            int [] count = new int[1];
+            o.forEach((key, value) -> count[0]++);
+            otherSize = count[0];
+        }
+        if(otherSize != currentSize)
+            return 1;
+
+        finishMigration();
+        for(int i = 0; i < keys.length; i++) {
+            if(isLive(keys[i]) && !Objects.equals(values[i], o.contains((K) keys[i])))
+                return 1; //Looked up, so the other map may have any layout
         }
         return 0;
     }
@@ -245,18 +1356,20 @@ public class MyHashTableImpl<K, V> implements MyMap<K, V>, ArrayWithPublishedSiz
      * */
     public void printHashTable() {
 
+        finishMigration();
+
         int i = 0;
         int limit = 10;
 
-        for (MapEntryImpl<K, V> entry : array) {
+        for (int position = 0; position < keys.length; position++) {
             if (i >= limit) {
                 System.out.println();
                 limit *= 2;
             }
             i++;
 
-            if(entry != null)
-                System.out.print(entry.getValue() + " ");
+            if(isLive(keys[position]))
+                System.out.print(values[position] + " ");
         }
     }
 }
@@ -0,0 +1,82 @@
+package impl;
+
+
+import interfaces.HashStrategy;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Hashing with power of two array lengths, mask indexing and triangular probing.
+ * The hash code bits are mixed, so keys differing only in upper bits spread as well.
+ * Triangular probing visits every slot of a power of two array.
+ */
+public class PowerOfTwoHashStrategy implements HashStrategy {
+
+    /**
+     * Mixes the hash code of the key (the murmur3 finalizer).
+     *
+     * @param key specified key.
+     * @return spread hash.
+     * */
+    @Override
+    public int hash(Object key) {
+
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Finds next power of two from a given value.
+     *
+     * @param minLength value from which the search begins.
+     * @return next power of two.
+     * */
+    @Override
+    public int capacityFor(int minLength) {
+
+        if(minLength > 1 << 30)
+            throw new IllegalStateException("The array can not be longer than 2^30.");
+        return minLength <= 2 ? 2 : Integer.highestOneBit(minLength - 1) << 1;
+    }
+
+    /**
+     * Uses the lowest bits of the hash.
+     *
+     * @param hash hash of the key.
+     * @param length length of the array.
+     * @return home position.
+     * */
+    @Override
+    public int indexFor(int hash, int length) {
+        return hash & (length - 1);
+    }
+
+    /**
+     * Triangular probing, the step-th probe is step * (step + 1) / 2 slots from home.
+     *
+     * @param position previous position.
+     * @param step collision number.
+     * @param length length of the array.
+     * @return next position.
+     * */
+    @Override
+    public int nextProbe(int position, int step, int length) {
+        return (position + step) & (length - 1);
+    }
+
+    /**
+     * Triangular probing visits every slot, so any load factor below 1 is safe.
+     *
+     * @return 1
+     * */
+    @Override
+    public double maxLoadFactor() {
+        return 1;
+    }
+}
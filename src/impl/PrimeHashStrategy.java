@@ -0,0 +1,96 @@
+package impl;
+
+
+import interfaces.HashStrategy;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Hashing with prime array lengths, modulo indexing and quadratic probing.
+ * It visits at least half of the slots, so the load factor should stay <= 0.5.
+ */
+public class PrimeHashStrategy implements HashStrategy {
+
+    /**
+     * Returns the hash code of the key unchanged.
+     *
+     * @param key specified key.
+     * @return hash code of the key.
+     * */
+    @Override
+    public int hash(Object key) {
+        return key.hashCode();
+    }
+
+    /**
+     * Finds next prime number from a given value.
+     *
+     * @param minLength value from which the search begins.
+     * @return next prime number.
+     * */
+    @Override
+    public int capacityFor(int minLength) {
+
+        int num = Math.max(minLength, 3);
+        if(num % 2 == 0)
+            num++;
+        while(!isPrime(num))
+            num += 2;
+
+        return num;
+    }
+
+    /**
+     * Check if the odd number is prime.
+     * Executes in O( sqrt(N) ).
+     *
+     * @param num checked value.
+     * @return whether number is a prime.
+     * */
+    private boolean isPrime(int num) {
+
+        for(int i = 3; i <= num / i; i += 2) {
+            if(num % i == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Uses the remainder of the hash without its sign bit,
+     * so Integer.MIN_VALUE maps inside the array as well.
+     *
+     * @param hash hash of the key.
+     * @param length length of the array.
+     * @return home position.
+     * */
+    @Override
+    public int indexFor(int hash, int length) {
+        return (hash & 0x7fffffff) % length;
+    }
+
+    /**
+     * Quadratic probing, the step-th probe is step^2 slots from home.
+     *
+     * @param position previous position.
+     * @param step collision number.
+     * @param length length of the array.
+     * @return next position.
+     * */
+    @Override
+    public int nextProbe(int position, int step, int length) {
+        return (int) ((position + 2L * step - 1) % length); //(step^2) - (step - 1)^2, in long so it cannot overflow
+    }
+
+    /**
+     * Quadratic probing over a prime length reaches only half of the slots.
+     *
+     * @return 0.5
+     * */
+    @Override
+    public double maxLoadFactor() {
+        return 0.5;
+    }
+}
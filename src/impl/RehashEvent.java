@@ -0,0 +1,36 @@
+package impl;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Flight recorder event committed for every rehash or clean up of a MyHashTableImpl.
+ * It costs a single check while no recording is running.
+ */
+@Name("impl.Rehash")
+@Label("Hash Table Rehash")
+@Category("Hash Table")
+@Description("Rehash or tombstone clean up of a MyHashTableImpl")
+class RehashEvent extends Event {
+
+    @Label("Old Length")
+    int oldLength;
+
+    @Label("New Length")
+    int newLength;
+
+    @Label("Size")
+    int size;
+
+    @Label("Incremental")
+    @Description("Only the new arrays are allocated, the keys are moved by later operations")
+    boolean incremental;
+}
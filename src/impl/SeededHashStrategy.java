@@ -0,0 +1,143 @@
+package impl;
+
+
+import interfaces.HashStrategy;
+
+import java.security.SecureRandom;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Hashing with a random secret seed, so colliding keys cannot be crafted in advance.
+ * String, Integer and Long keys are hashed from their content with SipHash-1-3 keyed
+ * by the seed; two different keys of these types collide only by chance, whatever
+ * their hashCode. Other keys are hashed from their hashCode, so keys sharing a
+ * hashCode keep colliding under every seed.
+ * Array lengths and probing are delegated to the wrapped strategy.
+ */
+public class SeededHashStrategy implements HashStrategy {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final HashStrategy base;
+    private final long k0;
+    private final long k1;
+
+    /**
+     * A public constructor, draws a random seed.
+     *
+     * @param base defines the array lengths and probing.
+     * */
+    public SeededHashStrategy(HashStrategy base) {
+        this(base, RANDOM.nextLong(), RANDOM.nextLong());
+    }
+
+    /**
+     * A public constructor with a given seed, for reproducible tests.
+     *
+     * @param base defines the array lengths and probing.
+     * @param k0 first half of the seed.
+     * @param k1 second half of the seed.
+     * */
+    public SeededHashStrategy(HashStrategy base, long k0, long k1) {
+        this.base = base;
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    /**
+     * Hashes the key with SipHash-1-3. Strings are read as 4 chars per word.
+     * Unlike String.hashCode the result is not cached, the tables cache it instead.
+     *
+     * @param key specified key.
+     * @return seeded hash.
+     * */
+    @Override
+    public int hash(Object key) {
+
+        long v0 = k0 ^ 0x736F6D6570736575L;
+        long v1 = k1 ^ 0x646F72616E646F6DL;
+        long v2 = k0 ^ 0x6C7967656E657261L;
+        long v3 = k1 ^ 0x7465646279746573L;
+        long last;
+
+        if(key instanceof String) {
+            String string = (String) key;
+            int length = string.length();
+            int i = 0;
+            for(; i + 4 <= length; i += 4) {
+                long word = string.charAt(i) | (long) string.charAt(i + 1) << 16
+                        | (long) string.charAt(i + 2) << 32 | (long) string.charAt(i + 3) << 48;
+
+                //Compression round
+                v3 ^= word;
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+                v0 ^= word;
+            }
+
+            last = (long) length << 48; //Remaining chars and the length
+            for(int shift = 0; i < length; i++, shift += 16)
+                last |= (long) string.charAt(i) << shift;
+        }
+        else if(key instanceof Integer)
+            last = ((Integer) key).longValue();
+        else if(key instanceof Long)
+            last = (Long) key;
+        else
+            last = key.hashCode();
+
+        v3 ^= last;
+        v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+        v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+        v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+        v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        v0 ^= last;
+
+        //Finalization rounds
+        v2 ^= 0xFF;
+        for(int round = 0; round < 3; round++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+
+        long hash = v0 ^ v1 ^ v2 ^ v3;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public int capacityFor(int minLength) {
+        return base.capacityFor(minLength);
+    }
+
+    @Override
+    public int indexFor(int hash, int length) {
+        return base.indexFor(hash, length);
+    }
+
+    @Override
+    public int nextProbe(int position, int step, int length) {
+        return base.nextProbe(position, step, length);
+    }
+
+    @Override
+    public double maxLoadFactor() {
+        return base.maxLoadFactor();
+    }
+
+    /**
+     * Returns the same strategy with a new random seed.
+     *
+     * @return reseeded strategy.
+     * */
+    @Override
+    public HashStrategy reseed() {
+        return new SeededHashStrategy(base);
+    }
+}
@@ -0,0 +1,332 @@
+package impl;
+
+
+import interfaces.MyMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Map partitioning the keys over independent MyHashTableImpl shards with a consistent
+ * hash ring. Every shard owns many points of the ring (virtual nodes) and a key belongs
+ * to the shard owning the first point at or after the key hash. Every shard rehashes on
+ * its own, so a resize touches only one shard.
+ *
+ * Adding or removing a shard changes the owner of about 1/N of the keys. They are moved
+ * in two parallel phases: every source shard extracts its leaving keys on its own thread,
+ * then every destination shard inserts its arriving keys on its own thread.
+ * Not thread-safe, the rebalancing uses the common fork-join pool internally.
+ */
+public class ShardedMyMap<K, V> implements MyMap<K, V> {
+
+    /**
+     * Ring points of every shard, more points spread the keys more evenly.
+     *
+     * */
+    private static final int VIRTUAL_NODES = 128;
+
+    private final double maxLoadFactor;
+    private final List<MyHashTableImpl<K, V>> shards = new ArrayList<>(); //Indexed by shard id, null once removed
+    private int [] ringPoints = new int[0]; //Sorted hashes of the virtual nodes
+    private int [] ringOwners = new int[0]; //Shard id of the point at the same index
+    private int shardCount = 0;
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum load factor of every shard.
+     * @param shardCount initial number of shards.
+     * */
+    public ShardedMyMap(double maxLoadFactor, int shardCount) {
+
+        if(shardCount <= 0)
+            throw new IllegalArgumentException("The map needs at least one shard.");
+
+        this.maxLoadFactor = maxLoadFactor;
+        for(int i = 0; i < shardCount; i++)
+            shards.add(new MyHashTableImpl<>(maxLoadFactor));
+        this.shardCount = shardCount;
+        buildRing();
+    }
+
+    @Override
+    public void insert(K key, V value) {
+        shardFor(key).insert(key, value);
+    }
+
+    @Override
+    public void delete(K key) {
+        shardFor(key).delete(key);
+    }
+
+    @Override
+    public V contains(K key) {
+        return shardFor(key).contains(key);
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        return shardFor(key).getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return shardFor(key).putIfAbsent(key, value);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        return shardFor(key).compute(key, remapping);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> entries() {
+        return shards.stream().filter(Objects::nonNull).flatMap(MyHashTableImpl::stream).iterator();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for(MyHashTableImpl<K, V> shard : shards) {
+            if(shard != null)
+                shard.forEach(action);
+        }
+    }
+
+    /**
+     * Adds an empty shard and moves the keys it now owns into it.
+     * About 1/N of the keys move, extracted from the other shards in parallel.
+     *
+     * @return id of the new shard.
+     * */
+    public int addShard() {
+
+        int id = shards.size();
+        shards.add(new MyHashTableImpl<>(maxLoadFactor));
+        shardCount++;
+        buildRing();
+
+        rebalance(IntStream.range(0, id).filter(shard -> shards.get(shard) != null).toArray());
+        return id;
+    }
+
+    /**
+     * Removes the shard and moves its keys to the shards now owning them,
+     * inserting into every destination in parallel.
+     *
+     * @param id id of the removed shard.
+     * */
+    public void removeShard(int id) {
+
+        if(id < 0 || id >= shards.size() || shards.get(id) == null)
+            throw new IllegalArgumentException("No shard with id " + id + ".");
+        if(shardCount == 1)
+            throw new IllegalStateException("The last shard can not be removed.");
+
+        MyHashTableImpl<K, V> removed = shards.get(id);
+        shards.set(id, null);
+        shardCount--;
+        buildRing(); //The removed shard owns no points now, so all of its keys leave
+        rebalance(new int[] {id}, removed);
+    }
+
+    /**
+     * Moves every key of the source shards that is owned by another shard
+     * under the current ring.
+     *
+     * @param sources ids of the shards that may hold keys of other shards.
+     * */
+    private void rebalance(int [] sources) {
+        rebalance(sources, null);
+    }
+
+    /**
+     * Moves every key of the source shards that is owned by another shard
+     * under the current ring.
+     *
+     * @param sources ids of the shards that may hold keys of other shards.
+     * @param removed table of the single source if it is already removed from the shards, or null.
+     * */
+    private void rebalance(int [] sources, MyHashTableImpl<K, V> removed) {
+
+        //Phase 1, every source extracts its leaving keys on its own
+        List<Moving<K, V>> leaving = Arrays.stream(sources).parallel()
+                .mapToObj(source -> extract(source, removed != null ? removed : shards.get(source)))
+                .collect(Collectors.toList());
+
+        //Group the keys by destination
+        int [] counts = new int[shards.size()];
+        for(Moving<K, V> moving : leaving)
+            for(int i = 0; i < moving.size; i++)
+                counts[moving.destinations[i]]++;
+
+        Object [][] arrivingKeys = new Object[shards.size()][];
+        Object [][] arrivingValues = new Object[shards.size()][];
+        for(int shard = 0; shard < counts.length; shard++) {
+            arrivingKeys[shard] = new Object[counts[shard]];
+            arrivingValues[shard] = new Object[counts[shard]];
+            counts[shard] = 0;
+        }
+        for(Moving<K, V> moving : leaving) {
+            for(int i = 0; i < moving.size; i++) {
+                int shard = moving.destinations[i];
+                arrivingKeys[shard][counts[shard]] = moving.keys[i];
+                arrivingValues[shard][counts[shard]++] = moving.values[i];
+            }
+        }
+
+        //Phase 2, every destination inserts its arriving keys on its own
+        IntStream.range(0, shards.size()).parallel()
+                .filter(shard -> arrivingKeys[shard].length > 0)
+                .forEach(shard -> insertAll(shards.get(shard), arrivingKeys[shard], arrivingValues[shard]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void insertAll(MyHashTableImpl<K, V> shard, Object [] keys, Object [] values) {
+        shard.insertAll((K []) keys, (V []) values);
+    }
+
+    /**
+     * Removes the keys of the shard owned by other shards.
+     * Touches only this shard, so sources run in parallel.
+     *
+     * @param source shard id.
+     * @param shard table of the shard.
+     * @return removed keys with their values and destinations.
+     * */
+    @SuppressWarnings("unchecked")
+    private Moving<K, V> extract(int source, MyHashTableImpl<K, V> shard) {
+
+        Moving<K, V> moving = new Moving<>();
+        shard.forEach((key, value) -> {
+            int destination = ownerOf(key);
+            if(destination != source)
+                moving.add(key, value, destination);
+        });
+
+        for(int i = 0; i < moving.size; i++)
+            shard.delete((K) moving.keys[i]);
+        return moving;
+    }
+
+    /**
+     * Places VIRTUAL_NODES points of every shard on the ring.
+     * Executes in O(S log S) for S points.
+     *
+     * */
+    private void buildRing() {
+
+        long [] points = new long[shardCount * VIRTUAL_NODES];
+        int count = 0;
+        for(int shard = 0; shard < shards.size(); shard++) {
+            if(shards.get(shard) == null)
+                continue;
+            for(int node = 0; node < VIRTUAL_NODES; node++) {
+                int point = (int) mix64((long) shard << 32 | node); //Depends only on the shard, so other points never move
+                points[count++] = (long) point << 32 | shard;
+            }
+        }
+        Arrays.sort(points, 0, count);
+
+        ringPoints = new int[count];
+        ringOwners = new int[count];
+        for(int i = 0; i < count; i++) {
+            ringPoints[i] = (int) (points[i] >> 32);
+            ringOwners[i] = (int) points[i];
+        }
+    }
+
+    private MyHashTableImpl<K, V> shardFor(K key) {
+        return shards.get(ownerOf(key));
+    }
+
+    /**
+     * Finds the shard owning the first ring point at or after the key hash.
+     * Executes in O(log S) for S points.
+     *
+     * @param key specified key.
+     * @return shard id.
+     * */
+    private int ownerOf(Object key) {
+
+        int hash = (int) mix64(key.hashCode());
+        int index = Arrays.binarySearch(ringPoints, hash);
+        if(index < 0)
+            index = -index - 1; //Insertion point, the first larger point
+        return ringOwners[index == ringPoints.length ? 0 : index]; //Wrap around the ring
+    }
+
+    /**
+     * Returns the number of keys in all shards.
+     *
+     * @return number of keys.
+     * */
+    public int size() {
+
+        int size = 0;
+        for(MyHashTableImpl<K, V> shard : shards) {
+            if(shard != null)
+                size += shard.size();
+        }
+        return size;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Returns the number of keys in one shard.
+     *
+     * @param id shard id.
+     * @return number of keys, 0 for a removed shard.
+     * */
+    public int shardSize(int id) {
+        MyHashTableImpl<K, V> shard = shards.get(id);
+        return shard == null ? 0 : shard.size();
+    }
+
+    /**
+     * The splitmix64 finalizer.
+     *
+     * */
+    private static long mix64(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    /**
+     * Keys leaving one source shard, with their values and destination shards.
+     *
+     * */
+    private static final class Moving<K, V> {
+
+        private Object [] keys = new Object[16];
+        private Object [] values = new Object[16];
+        private int [] destinations = new int[16];
+        private int size = 0;
+
+        private void add(K key, V value, int destination) {
+            if(size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+                destinations = Arrays.copyOf(destinations, 2 * size);
+            }
+            keys[size] = key;
+            values[size] = value;
+            destinations[size++] = destination;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package impl;
+
+
+import interfaces.ArrayWithPublishedSize;
+import interfaces.HashStrategy;
+import interfaces.MyMap;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Hash table with quadratic probing collision technique specialized for String keys.
+ * The UTF-8 bytes of all keys are appended to one byte array (the arena); a slot
+ * only holds the offset, length and hash of its key in int arrays, so a key costs
+ * no String, byte[] or entry object. A lookup compares the hash first and then the
+ * arena bytes directly, and accepts a String, any CharSequence or UTF-8 bytes, none
+ * of which is copied. An unpaired surrogate is encoded like a code point of its own,
+ * in three bytes (WTF-8), so distinct Strings never share a key; such keys are not
+ * valid UTF-8 and are found only by their String or CharSequence form.
+ *
+ * The hash is computed over the UTF-8 bytes, so every form of a key finds the same
+ * slot; the strategy only defines the array length and probing.
+ */
+public class StringKeyHashTable<V> implements MyMap<String, V>, ArrayWithPublishedSize {
+
+    private static final int DEFAULT_ARRAY_LENGTH = 16;
+    private static final int DEFAULT_ARENA_LENGTH = 256;
+
+    private static final int EMPTY = -1; //Offset of a slot that never held a key
+    private static final int TOMBSTONE = -2; //Offset of a slot whose key has been deleted
+
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private int [] offsets; //Arena offset of the key in the same slot, or EMPTY or TOMBSTONE
+    private int [] lengths; //Number of UTF-8 bytes of the key
+    private int [] hashes;
+    private Object [] values;
+    private byte [] arena;
+    private int arenaUsed = 0;
+    private int garbage = 0; //Arena bytes of deleted keys
+    private final double maxLoadFactor;
+    private final HashStrategy strategy;
+    private int currentSize = 0;
+    private int tombstones = 0;
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum load factor.
+     * */
+    public StringKeyHashTable(double maxLoadFactor) {
+        this(maxLoadFactor, new PowerOfTwoHashStrategy());
+    }
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum load factor.
+     * @param strategy defines the array length and probing.
+     * */
+    public StringKeyHashTable(double maxLoadFactor, HashStrategy strategy) {
+
+        if(maxLoadFactor <= 0 || maxLoadFactor > strategy.maxLoadFactor() || maxLoadFactor >= 1)
+            throw new IllegalArgumentException("The load factor must be between 0 and " + strategy.maxLoadFactor()
+                    + " for this strategy, and below 1.");
+
+        this.maxLoadFactor = maxLoadFactor;
+        this.strategy = strategy;
+        this.arena = new byte[DEFAULT_ARENA_LENGTH];
+        allocateArrays(strategy.capacityFor(DEFAULT_ARRAY_LENGTH));
+    }
+
+    /**
+     * Inserts the element into the table. If the key already exists,
+     * its value is replaced and the arena is not touched.
+     *
+     * @param key sets key
+     * @param value pairs a value with a given key
+     * */
+    @Override
+    public void insert(String key, V value) {
+        insert((CharSequence) key, value);
+    }
+
+    /**
+     * Inserts the element into the table, copying the characters of the key
+     * into the arena only if the key is new.
+     *
+     * @param key sets key
+     * @param value pairs a value with a given key
+     * */
+    public void insert(CharSequence key, V value) {
+
+        int hash = hash(key);
+        int step = 0;
+        int position = strategy.indexFor(hash, offsets.length);
+        int reusable = -1;
+
+        while(offsets[position] != EMPTY) {
+            if(offsets[position] == TOMBSTONE) {
+                if(reusable < 0)
+                    reusable = position;
+            }
+            else if(hashes[position] == hash && equalsAt(offsets[position], lengths[position], key)) {
+                values[position] = value; //Override the value if the key already exists
+                return;
+            }
+            position = strategy.nextProbe(position, ++step, offsets.length);
+        }
+        if(reusable >= 0) {
+            position = reusable;
+            tombstones--;
+        }
+
+        offsets[position] = arenaUsed;
+        lengths[position] = append(key);
+        hashes[position] = hash;
+        values[position] = value;
+        currentSize++;
+
+        if((double)(currentSize + tombstones) / offsets.length >= maxLoadFactor)
+            rehash();
+    }
+
+    /**
+     * Performs a usual deletion of a specified key.
+     * The bytes of the key stay in the arena until the next rehash.
+     *
+     * @param key the key chosen for removal.
+     * */
+    @Override
+    public void delete(String key) {
+
+        int position = findPos(key, hash(key));
+        if(offsets[position] == EMPTY)
+            return;
+
+        garbage += lengths[position];
+        offsets[position] = TOMBSTONE;
+        values[position] = null;
+        currentSize--;
+        tombstones++;
+
+        //Deleted keys fill most of the arena, move the live ones together
+        if(garbage > DEFAULT_ARENA_LENGTH && garbage > arenaUsed / 2)
+            rebuild(offsets.length);
+    }
+
+    /**
+     * Returns the value associated with a given key.
+     * Executes in O(1) for load factor <= 0.5.
+     *
+     * @param key specified key
+     * @return value associated with the key
+     * */
+    @Override
+    public V contains(String key) {
+        return contains((CharSequence) key);
+    }
+
+    /**
+     * Returns the value associated with the key having the same characters.
+     * Does not allocate.
+     *
+     * @param key specified key
+     * @return value associated with the key
+     * */
+    @SuppressWarnings("unchecked")
+    public V contains(CharSequence key) {
+
+        int position = findPos(key, hash(key));
+        return offsets[position] == EMPTY ? null : (V) values[position];
+    }
+
+    /**
+     * Returns the value associated with the key encoded by the UTF-8 bytes
+     * in the given range. Does not allocate.
+     *
+     * @param utf8 array holding the encoded key
+     * @param offset first byte of the key
+     * @param length number of bytes of the key
+     * @return value associated with the key
+     * */
+    @SuppressWarnings("unchecked")
+    public V contains(byte [] utf8, int offset, int length) {
+
+        int hash = hash(utf8, offset, length);
+        int step = 0;
+        int position = strategy.indexFor(hash, offsets.length);
+
+        while(offsets[position] != EMPTY) {
+            if(offsets[position] != TOMBSTONE && hashes[position] == hash && lengths[position] == length
+                    && Arrays.equals(arena, offsets[position], offsets[position] + length, utf8, offset, offset + length))
+                return (V) values[position];
+            position = strategy.nextProbe(position, ++step, offsets.length);
+        }
+        return null;
+    }
+
+    /**
+     * Returns an iterator over the entries. Every key is decoded into a new String.
+     *
+     * @return iterator over copies of the entries.
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Map.Entry<String, V>> entries() {
+        return IntStream.range(0, offsets.length)
+                .filter(position -> offsets[position] >= 0)
+                .mapToObj(position -> (Map.Entry<String, V>) new MapEntryImpl<>(
+                        decode(offsets[position], lengths[position]), (V) values[position]))
+                .iterator();
+    }
+
+    /**
+     * Decodes a key of the arena. Unlike the UTF-8 charset, it turns an
+     * encoded unpaired surrogate back into the same char.
+     *
+     * */
+    private String decode(int offset, int length) {
+
+        char [] chars = new char[length]; //Every character takes at least one byte
+        int count = 0;
+        for(int i = offset; i < offset + length; ) {
+            int lead = arena[i] & 0xFF;
+            if(lead < 0x80) {
+                chars[count++] = (char) lead;
+                i++;
+                continue;
+            }
+
+            int bytes = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : 2;
+            int codePoint = lead & (0x7F >> bytes); //Payload bits of the lead byte
+            for(int k = 1; k < bytes; k++)
+                codePoint = codePoint << 6 | arena[i + k] & 0x3F;
+            count += Character.toChars(codePoint, chars, count);
+            i += bytes;
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Finds the position of the key, or the free slot
+     * ending its probing chain, by using quadratic probing.
+     *
+     * @param key specified key.
+     * @param hash hash of the key.
+     * @return position of the key or of a free slot.
+     * */
+    private int findPos(CharSequence key, int hash) {
+
+        int step = 0;
+        int position = strategy.indexFor(hash, offsets.length);
+
+        while(offsets[position] != EMPTY) {
+            if(offsets[position] != TOMBSTONE && hashes[position] == hash && equalsAt(offsets[position], lengths[position], key))
+                return position;
+            position = strategy.nextProbe(position, ++step, offsets.length);
+        }
+        return position;
+    }
+
+    /**
+     * Compares the arena bytes with the UTF-8 encoding of the characters,
+     * encoding one character at a time.
+     *
+     * @return whether they are the same key.
+     * */
+    private boolean equalsAt(int offset, int length, CharSequence key) {
+
+        int count = key.length();
+        if(count > length)
+            return false; //Every character takes at least one byte
+
+        int end = offset + length;
+        int index = offset;
+        for(int i = 0; i < count; i++) {
+            char c = key.charAt(i);
+            if(c < 0x80) {
+                if(index == end || arena[index++] != c)
+                    return false;
+                continue;
+            }
+
+            int codePoint = codePointAt(key, i);
+            if(codePoint > 0xFFFF)
+                i++; //The low surrogate is part of the code point
+            int bytes = utf8Length(codePoint);
+            if(index + bytes > end)
+                return false;
+            for(int k = 0; k < bytes; k++) {
+                if(arena[index++] != (byte) utf8Byte(codePoint, bytes, k))
+                    return false;
+            }
+        }
+        return index == end;
+    }
+
+    /**
+     * Appends the UTF-8 encoding of the characters to the arena.
+     *
+     * @return number of bytes appended.
+     * */
+    private int append(CharSequence key) {
+
+        int start = arenaUsed;
+        ensureArena(4L * key.length()); //Upper bound, no character takes more than 4 bytes
+        for(int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if(c < 0x80) {
+                arena[arenaUsed++] = (byte) c;
+                continue;
+            }
+
+            int codePoint = codePointAt(key, i);
+            if(codePoint > 0xFFFF)
+                i++;
+            int bytes = utf8Length(codePoint);
+            for(int k = 0; k < bytes; k++)
+                arena[arenaUsed++] = (byte) utf8Byte(codePoint, bytes, k);
+        }
+        return arenaUsed - start;
+    }
+
+    private void ensureArena(long needed) {
+
+        if(arenaUsed + needed <= arena.length)
+            return;
+        long length = Math.max(2L * arena.length, arenaUsed + needed);
+        if(length > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("The arena can not hold more than 2^31 bytes.");
+        arena = Arrays.copyOf(arena, (int) length);
+    }
+
+    /**
+     * Reallocates the arrays, twice as long if the keys fill them,
+     * the same length if mostly tombstones do.
+     *
+     * */
+    private void rehash() {
+
+        if((double)currentSize / offsets.length < maxLoadFactor / 2)
+            rebuild(offsets.length);
+        else
+            rebuild(strategy.capacityFor(2 * offsets.length));
+    }
+
+    /**
+     * Moves every live key into new arrays of the given length and
+     * its bytes into a new arena, leaving tombstones and deleted bytes behind.
+     * Executes in O(N).
+     *
+     * @param newLength sets the length of the new arrays.
+     * */
+    private void rebuild(int newLength) {
+
+        //Save old values
+        int [] oldOffsets = offsets;
+        int [] oldLengths = lengths;
+        int [] oldHashes = hashes;
+        Object [] oldValues = values;
+        byte [] oldArena = arena;
+
+        allocateArrays(newLength);
+        arena = new byte[Math.max(DEFAULT_ARENA_LENGTH, arenaUsed - garbage)];
+        arenaUsed = 0;
+        garbage = 0;
+        tombstones = 0;
+
+        for(int i = 0; i < oldOffsets.length; i++) {
+            if(oldOffsets[i] < 0)
+                continue;
+
+            int step = 0;
+            int position = strategy.indexFor(oldHashes[i], offsets.length);
+            while(offsets[position] != EMPTY)
+                position = strategy.nextProbe(position, ++step, offsets.length);
+
+            System.arraycopy(oldArena, oldOffsets[i], arena, arenaUsed, oldLengths[i]);
+            offsets[position] = arenaUsed;
+            lengths[position] = oldLengths[i];
+            hashes[position] = oldHashes[i];
+            values[position] = oldValues[i];
+            arenaUsed += oldLengths[i];
+        }
+    }
+
+    private void allocateArrays(int newLength) {
+        offsets = new int[newLength];
+        Arrays.fill(offsets, EMPTY);
+        lengths = new int[newLength];
+        hashes = new int[newLength];
+        values = new Object[newLength];
+    }
+
+    /**
+     * Hashes the UTF-8 encoding of the characters (FNV-1a, then the
+     * murmur3 finalizer), without encoding them into an array.
+     *
+     * */
+    private static int hash(CharSequence key) {
+
+        int hash = FNV_OFFSET;
+        for(int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if(c < 0x80) {
+                hash = (hash ^ c) * FNV_PRIME;
+                continue;
+            }
+
+            int codePoint = codePointAt(key, i);
+            if(codePoint > 0xFFFF)
+                i++;
+            int bytes = utf8Length(codePoint);
+            for(int k = 0; k < bytes; k++)
+                hash = (hash ^ utf8Byte(codePoint, bytes, k)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static int hash(byte [] utf8, int offset, int length) {
+
+        int hash = FNV_OFFSET;
+        for(int i = offset; i < offset + length; i++)
+            hash = (hash ^ (utf8[i] & 0xFF)) * FNV_PRIME;
+        return mix(hash);
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the code point starting at the index. An unpaired
+     * surrogate is returned as it is and encoded in three bytes.
+     *
+     * */
+    private static int codePointAt(CharSequence key, int index) {
+
+        char c = key.charAt(index);
+        if(Character.isHighSurrogate(c) && index + 1 < key.length() && Character.isLowSurrogate(key.charAt(index + 1)))
+            return Character.toCodePoint(c, key.charAt(index + 1));
+        return c;
+    }
+
+    private static int utf8Length(int codePoint) {
+        return codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * Returns the k-th byte of the UTF-8 encoding of the code point.
+     *
+     * */
+    private static int utf8Byte(int codePoint, int bytes, int k) {
+
+        if(bytes == 1)
+            return codePoint;
+        if(k == 0)
+            return (0xFF00 >> bytes) & 0xFF | codePoint >> (6 * (bytes - 1)); //Lead byte, 110xxxxx, 1110xxxx or 11110xxx
+        return 0x80 | (codePoint >> (6 * (bytes - 1 - k))) & 0x3F;
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return number of keys.
+     * */
+    public int size() {
+        return currentSize;
+    }
+
+    /**
+     * Returns the number of arena bytes in use, including deleted keys.
+     *
+     * @return used arena bytes.
+     * */
+    public int getArenaSize() {
+        return arenaUsed;
+    }
+
+    /**
+     * Returns the length of the slot arrays.
+     *
+     * @return array length.
+     * */
+    @Override
+    public int getLengthOfArray() {
+        return offsets.length;
+    }
+}
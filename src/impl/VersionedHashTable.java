@@ -0,0 +1,422 @@
+package impl;
+
+
+import interfaces.ArrayWithPublishedSize;
+import interfaces.HashStrategy;
+import interfaces.MyMap;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * @author Domagoj Trupeljak
+ * @author Jacob Yousif
+ * @version 1.0
+ *
+ * Hash table with quadratic probing collision technique for one writer thread,
+ * whose snapshots can be read by any number of threads without locking.
+ * The slot arrays are split into chunks of CHUNK_SIZE slots, reached through a
+ * directory. A snapshot keeps the current directory and starts a new epoch;
+ * the writer then copies a chunk, and the directory, the first time it writes
+ * to it in the new epoch, so taking a snapshot is O(1) and the chunks it sees
+ * never change. Reads of a snapshot are plain array reads and never wait.
+ *
+ * A chunk is reclaimed by the garbage collector once neither the table nor
+ * any reachable snapshot refers to it.
+ */
+public class VersionedHashTable<K, V> implements MyMap<K, V>, ArrayWithPublishedSize {
+
+    private static final int DEFAULT_ARRAY_LENGTH = 13;
+
+    /**
+     * Slots per chunk, the unit copied by the writer after a snapshot.
+     *
+     * */
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Marks a slot whose key has been deleted.
+     * It never equals any other key, so probing continues past it.
+     *
+     * */
+    private static final Object TOMBSTONE = new Object();
+
+    private Object [][] keys; //Directory of key chunks
+    private Object [][] values;
+    private int [][] hashes; //Cached strategy hash of the key in the same slot
+    private int [] chunkEpochs; //Epoch in which the writer owns the chunk, older chunks may be shared
+    private int directoryEpoch; //Epoch in which the writer owns the directories
+    private int epoch = 0; //Incremented by every snapshot that is kept
+    private int length; //Number of slots
+    private final double maxLoadFactor;
+    private final HashStrategy strategy;
+    private int currentSize = 0;
+    private int tombstones = 0;
+    private Snapshot<K, V> latest; //Snapshot of the current state, null after a write
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum load factor.
+     * */
+    public VersionedHashTable(double maxLoadFactor) {
+        this(maxLoadFactor, MyHashTableImpl.defaultStrategy(maxLoadFactor));
+    }
+
+    /**
+     * A public constructor.
+     *
+     * @param maxLoadFactor sets the maximum load factor.
+     * @param strategy hashes the keys and defines the array length and probing.
+     * */
+    public VersionedHashTable(double maxLoadFactor, HashStrategy strategy) {
+
+        if(maxLoadFactor <= 0 || maxLoadFactor > strategy.maxLoadFactor() || maxLoadFactor >= 1)
+            throw new IllegalArgumentException("The load factor must be between 0 and " + strategy.maxLoadFactor()
+                    + " for this strategy, and below 1.");
+
+        this.maxLoadFactor = maxLoadFactor;
+        this.strategy = strategy;
+        allocateChunks(strategy.capacityFor(DEFAULT_ARRAY_LENGTH));
+    }
+
+    /**
+     * Returns a read-only view of the current keys and values. Later writes
+     * are not visible through it. May only be called by the writing thread;
+     * the view itself can be shared with any thread, even through a data race.
+     * Executes in O(1).
+     *
+     * @return view of the current state.
+     * */
+    public Snapshot<K, V> snapshot() {
+
+        if(latest == null) {
+            latest = new Snapshot<>(keys, values, hashes, length, currentSize, strategy, epoch);
+            epoch++; //Every chunk and directory is shared now
+        }
+        return latest;
+    }
+
+    /**
+     * Inserts the element into the table. If the key already exists,
+     * its value is replaced.
+     *
+     * @param key sets key
+     * @param value pairs a value with a given key
+     * */
+    @Override
+    public void insert(K key, V value) {
+
+        int hash = strategy.hash(key);
+        int position = findInsertPos(key, hash);
+        int chunk = position >>> CHUNK_SHIFT;
+        int slot = position & CHUNK_MASK;
+        Object current = keys[chunk][slot];
+
+        writable(chunk);
+        latest = null;
+        if(current != null && current != TOMBSTONE) {
+            values[chunk][slot] = value; //Override the value if the key already exists
+            return;
+        }
+
+        if(current == TOMBSTONE)
+            tombstones--;
+        keys[chunk][slot] = key;
+        values[chunk][slot] = value;
+        hashes[chunk][slot] = hash;
+        currentSize++;
+
+        if((double)(currentSize + tombstones) / length >= maxLoadFactor)
+            rehash();
+    }
+
+    /**
+     * Performs a usual deletion of a specified key.
+     *
+     * @param key the key chosen for removal.
+     * */
+    @Override
+    public void delete(K key) {
+
+        int position = findPos(keys, hashes, length, strategy, key, strategy.hash(key));
+        int chunk = position >>> CHUNK_SHIFT;
+        int slot = position & CHUNK_MASK;
+        if(keys[chunk][slot] == null)
+            return;
+
+        writable(chunk);
+        latest = null;
+        keys[chunk][slot] = TOMBSTONE;
+        values[chunk][slot] = null;
+        currentSize--;
+        tombstones++;
+    }
+
+    /**
+     * Returns the value associated with a given key in the current state.
+     *
+     * @param key specified key
+     * @return value associated with the key
+     * */
+    @Override
+    public V contains(K key) {
+        return lookup(keys, values, hashes, length, strategy, key);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> entries() {
+        return iterate(keys, values, length);
+    }
+
+    /**
+     * Makes the chunk, and the directories holding it, private to the writer
+     * by copying them if a snapshot may refer to them.
+     * Executes in O(1), or in O(CHUNK_SIZE + N / CHUNK_SIZE) on the first write of an epoch.
+     *
+     * @param chunk index of the written chunk.
+     * */
+    private void writable(int chunk) {
+
+        if(directoryEpoch != epoch) {
+            keys = keys.clone();
+            values = values.clone();
+            hashes = hashes.clone();
+            directoryEpoch = epoch;
+        }
+        if(chunkEpochs[chunk] != epoch) {
+            keys[chunk] = keys[chunk].clone();
+            values[chunk] = values[chunk].clone();
+            hashes[chunk] = hashes[chunk].clone();
+            chunkEpochs[chunk] = epoch;
+        }
+    }
+
+    /**
+     * Allocates new chunks owned by the writer. Snapshots keep the old ones.
+     *
+     * @param newLength number of slots.
+     * */
+    private void allocateChunks(int newLength) {
+
+        int chunks = (newLength + CHUNK_MASK) >>> CHUNK_SHIFT;
+        keys = new Object[chunks][];
+        values = new Object[chunks][];
+        hashes = new int[chunks][];
+        chunkEpochs = new int[chunks];
+        for(int chunk = 0; chunk < chunks; chunk++) {
+            int chunkLength = Math.min(CHUNK_SIZE, newLength - (chunk << CHUNK_SHIFT));
+            keys[chunk] = new Object[chunkLength];
+            values[chunk] = new Object[chunkLength];
+            hashes[chunk] = new int[chunkLength];
+            chunkEpochs[chunk] = epoch;
+        }
+        directoryEpoch = epoch;
+        length = newLength;
+    }
+
+    /**
+     * Moves the keys into new chunks, twice as many slots if the keys fill
+     * the table, the same number if mostly tombstones do.
+     * Executes in O(N).
+     *
+     * */
+    private void rehash() {
+
+        Object [][] oldKeys = keys;
+        Object [][] oldValues = values;
+        int [][] oldHashes = hashes;
+
+        //If mostly tombstones fill the table, cleaning them up is enough
+        int newLength = (double)currentSize / length < maxLoadFactor / 2 ? length : strategy.capacityFor(2 * length);
+        allocateChunks(newLength);
+        tombstones = 0; //Tombstones are not moved
+
+        for(int chunk = 0; chunk < oldKeys.length; chunk++) {
+            for(int slot = 0; slot < oldKeys[chunk].length; slot++) {
+                Object key = oldKeys[chunk][slot];
+                if(key == null || key == TOMBSTONE)
+                    continue;
+
+                int hash = oldHashes[chunk][slot];
+                int step = 0;
+                int position = strategy.indexFor(hash, length);
+                while(keys[position >>> CHUNK_SHIFT][position & CHUNK_MASK] != null)
+                    position = strategy.nextProbe(position, ++step, length);
+
+                keys[position >>> CHUNK_SHIFT][position & CHUNK_MASK] = key;
+                values[position >>> CHUNK_SHIFT][position & CHUNK_MASK] = oldValues[chunk][slot];
+                hashes[position >>> CHUNK_SHIFT][position & CHUNK_MASK] = hash;
+            }
+        }
+    }
+
+    /**
+     * Finds the position of the key, or the slot where it should be inserted:
+     * the first tombstone on the probing chain or the free slot ending it.
+     *
+     * @param key specified key.
+     * @param hash hash of the key.
+     * @return position of the key or of the slot for it.
+     * */
+    private int findInsertPos(K key, int hash) {
+
+        int step = 0;
+        int position = strategy.indexFor(hash, length);
+        int reusable = -1;
+        Object current;
+
+        while((current = keys[position >>> CHUNK_SHIFT][position & CHUNK_MASK]) != null) {
+            if(current == TOMBSTONE) {
+                if(reusable < 0)
+                    reusable = position;
+            }
+            else if(hashes[position >>> CHUNK_SHIFT][position & CHUNK_MASK] == hash && current.equals(key))
+                return position;
+
+            position = strategy.nextProbe(position, ++step, length);
+        }
+        return reusable >= 0 ? reusable : position;
+    }
+
+    /**
+     * Finds the position of the key, or the free slot
+     * ending its probing chain, by using quadratic probing.
+     * Shared by the table and its snapshots.
+     *
+     * @return position of the key or of a free slot.
+     * */
+    private static int findPos(Object [][] keys, int [][] hashes, int length, HashStrategy strategy, Object key, int hash) {
+
+        int step = 0;
+        int position = strategy.indexFor(hash, length);
+        Object current;
+
+        while((current = keys[position >>> CHUNK_SHIFT][position & CHUNK_MASK]) != null
+                && (hashes[position >>> CHUNK_SHIFT][position & CHUNK_MASK] != hash || !current.equals(key)))
+            position = strategy.nextProbe(position, ++step, length);
+
+        return position;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V lookup(Object [][] keys, Object [][] values, int [][] hashes, int length,
+                                HashStrategy strategy, Object key) {
+
+        int position = findPos(keys, hashes, length, strategy, key, strategy.hash(key));
+        if(keys[position >>> CHUNK_SHIFT][position & CHUNK_MASK] == null)
+            return null;
+        return (V) values[position >>> CHUNK_SHIFT][position & CHUNK_MASK];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Iterator<Map.Entry<K, V>> iterate(Object [][] keys, Object [][] values, int length) {
+        return IntStream.range(0, length)
+                .filter(position -> {
+                    Object key = keys[position >>> CHUNK_SHIFT][position & CHUNK_MASK];
+                    return key != null && key != TOMBSTONE;
+                })
+                .mapToObj(position -> (Map.Entry<K, V>) new MapEntryImpl<>((K) keys[position >>> CHUNK_SHIFT][position & CHUNK_MASK],
+                        (V) values[position >>> CHUNK_SHIFT][position & CHUNK_MASK]))
+                .iterator();
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return number of keys.
+     * */
+    public int size() {
+        return currentSize;
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return array length.
+     * */
+    @Override
+    public int getLengthOfArray() {
+        return length;
+    }
+
+    /**
+     * Read-only view of a VersionedHashTable at the time it was taken.
+     * Every field is final and the chunks are never written again,
+     * so the view is safe to read from any thread without locking.
+     *
+     * */
+    public static final class Snapshot<K, V> implements MyMap<K, V> {
+
+        private final Object [][] keys;
+        private final Object [][] values;
+        private final int [][] hashes;
+        private final int length;
+        private final int size;
+        private final HashStrategy strategy;
+        private final int version;
+
+        private Snapshot(Object [][] keys, Object [][] values, int [][] hashes, int length, int size,
+                         HashStrategy strategy, int version) {
+            this.keys = keys;
+            this.values = values;
+            this.hashes = hashes;
+            this.length = length;
+            this.size = size;
+            this.strategy = strategy;
+            this.version = version;
+        }
+
+        /**
+         * Returns the value associated with a given key when the snapshot was taken.
+         * Wait-free, it only reads arrays that never change.
+         *
+         * @param key specified key
+         * @return value associated with the key
+         * */
+        @Override
+        public V contains(K key) {
+            return lookup(keys, values, hashes, length, strategy, key);
+        }
+
+        /**
+         * Not supported, the snapshot is read-only.
+         *
+         * */
+        @Override
+        public void insert(K key, V value) {
+            throw new UnsupportedOperationException("A snapshot is read-only.");
+        }
+
+        /**
+         * Not supported, the snapshot is read-only.
+         *
+         * */
+        @Override
+        public void delete(K key) {
+            throw new UnsupportedOperationException("A snapshot is read-only.");
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> entries() {
+            return iterate(keys, values, length);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the epoch of the table when the snapshot was taken.
+         * A later snapshot of the same table has a larger version.
+         *
+         * @return snapshot version.
+         * */
+        public int getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package interfaces;
+
+import java.nio.ByteBuffer;
+
+public interface Codec<T> {
+
+    public int sizeOf(T value); // It returns the number of bytes written by write for the value.
+
+    public void write(ByteBuffer buffer, T value); // It writes the value at the current position of the buffer.
+
+    public T read(ByteBuffer buffer, int length); // It reads a value of 'length' bytes from the current position
+    // of the buffer.
+
+}
@@ -0,0 +1,26 @@
+package interfaces;
+
+public interface HashStrategy {
+
+    public int hash(Object key); // It returns the hash of the key. Tables cache it, so it is computed once per key.
+
+    public int capacityFor(int minLength); // It returns the smallest array length supported by the strategy
+    // that is at least minLength.
+
+    public int indexFor(int hash, int length); // It returns the home position of the hash in an array of the
+    // given length.
+
+    public int nextProbe(int position, int step, int length); // It returns the position probed after 'position'
+    // on the step-th collision (step starts at 1).
+
+    public default double maxLoadFactor() { // It returns the largest load factor at which probing still finds a free
+        // slot, tables reject higher load factors. Quadratic probing over any length reaches half of the slots.
+        return 0.5;
+    }
+
+    public default HashStrategy reseed() { // It returns an equal strategy hashing with a new random seed, tables
+        // call it when probe sequences get suspiciously long. Strategies without a seed return themselves.
+        return this;
+    }
+
+}
@@ -0,0 +1,32 @@
+package interfaces;
+
+public interface HashTableStatsMXBean {
+
+    public int getSize(); // It returns the number of keys.
+
+    public int getLengthOfArray(); // It returns the number of slots.
+
+    public int getTombstones(); // It returns the number of slots holding a tombstone.
+
+    public double getLoadFactor(); // It returns the ratio of keys to slots.
+
+    public double getWastedToLiveRatio(); // It returns the ratio of free and tombstone slots to keys.
+
+    public long getProbes(); // It returns the number of recorded probing sequences.
+
+    public double getAverageProbeLength(); // It returns the average number of collisions per probing sequence.
+
+    public int getMaxProbeLength(); // It returns the longest recorded probing sequence.
+
+    public long[] getProbeLengthHistogram(); // It returns the number of probing sequences per length bucket:
+    // [0], [1], [2, 3], [4, 7], ... collisions.
+
+    public long getRehashCount(); // It returns the number of rehashes and clean ups.
+
+    public long getTotalRehashNanos(); // It returns the time spent in rehashes and clean ups.
+
+    public long getMaxRehashNanos(); // It returns the longest rehash or clean up.
+
+    public void reset(); // It clears the probe and rehash counters.
+
+}
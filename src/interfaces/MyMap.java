@@ -1,5 +1,14 @@
 package interfaces;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public interface MyMap<K, V> {
 
     public void insert(K key, V value); // It does the usual insertion. If an element with the same key already exists
@@ -11,4 +20,70 @@ public interface MyMap<K, V> {
     public V contains(K key); // It returns the 'value' associated with the key parameter, if it exists in the
     // table. If it does not exist, it returns null.
 
+    public default V getOrDefault(K key, V defaultValue) { // It returns the 'value' associated with the key, or
+        // defaultValue if the table has no value for the key.
+        V value = contains(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public default V putIfAbsent(K key, V value) { // It inserts the value only if the key has no value yet and
+        // returns null. Otherwise, it returns the current value and changes nothing.
+        V current = contains(key);
+        if (current == null)
+            insert(key, value);
+        return current;
+    }
+
+    public default V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) { // It replaces the
+        // value of the key with remapping(key, current value), where the current value is null if there is none.
+        // If the result is null, the key is deleted. It returns the new value.
+        V value = remapping.apply(key, contains(key));
+        if (value == null)
+            delete(key);
+        else
+            insert(key, value);
+        return value;
+    }
+
+    public default V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) { // It inserts
+        // the value if the key has no value yet, otherwise it replaces the current value with
+        // remapping(current value, value). If the result is null, the key is deleted. It returns the new value.
+        return compute(key, (k, current) -> current == null ? value : remapping.apply(current, value));
+    }
+
+    public Iterator<Map.Entry<K, V>> entries(); // It returns an iterator over the (key, value) pairs of the table,
+    // in no particular order. The entries are copies, setValue does not change the table.
+
+    public default Iterator<K> keys() { // It returns an iterator over the keys of the table, in no particular order.
+        Iterator<Map.Entry<K, V>> entries = entries();
+        return new Iterator<K>() {
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            public K next() {
+                return entries.next().getKey();
+            }
+        };
+    }
+
+    public default void forEach(BiConsumer<? super K, ? super V> action) { // It calls the action for every
+        // (key, value) pair of the table, in no particular order.
+        Iterator<Map.Entry<K, V>> entries = entries();
+        while (entries.hasNext()) {
+            Map.Entry<K, V> entry = entries.next();
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public default Spliterator<Map.Entry<K, V>> spliterator() { // It returns a spliterator over the entries. Tables
+        // that can split their slot arrays return one that splits, so parallel streams use every core.
+        return Spliterators.spliteratorUnknownSize(entries(), Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    public default Stream<Map.Entry<K, V>> stream() { // It returns a sequential stream over the entries,
+        // stream().parallel() splits the work with spliterator().
+        return StreamSupport.stream(spliterator(), false);
+    }
+
 }
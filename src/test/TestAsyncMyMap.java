@@ -0,0 +1,81 @@
+package test;
+
+import impl.AsyncMyMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+class TestAsyncMyMap {
+
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    @Test
+    void TestRequestsRunInOrder() {
+	AsyncMyMap<Integer, Integer> map = new AsyncMyMap<>(MAX_LOAD_FACTOR, 16);
+
+	List<CompletableFuture<Integer>> lookups = new ArrayList<>();
+	for (int i = 0; i < 10000; i++) {
+	    map.insert(i, i);
+	    lookups.add(map.contains(i));
+	    if (i % 3 == 0)
+		map.delete(i);
+	}
+	for (int i = 0; i < 10000; i++) {
+	    Assertions.assertEquals(i, lookups.get(i).join());
+	    Assertions.assertEquals(i % 3 == 0 ? null : Integer.valueOf(i), map.contains(i).join());
+	}
+
+	map.close();
+	CompletableFuture<Integer> late = map.contains(1);
+	CompletionException e = Assertions.assertThrows(CompletionException.class, late::join);
+	Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void TestConcurrentCallers() throws InterruptedException {
+	AsyncMyMap<Integer, Integer> map = new AsyncMyMap<>(MAX_LOAD_FACTOR, 64);
+	for (int i = 0; i < 1000; i++)
+	    map.insert(i, -i);
+
+	Thread[] callers = new Thread[8];
+	boolean[] correct = new boolean[callers.length];
+	for (int c = 0; c < callers.length; c++) {
+	    int caller = c;
+	    callers[c] = new Thread(() -> {
+		boolean ok = true;
+		for (int i = 0; i < 20000; i++) {
+		    int key = (i * 31 + caller) % 2000;
+		    ok &= Objects.equals(map.contains(key).join(), key < 1000 ? Integer.valueOf(-key) : null);
+		}
+		correct[caller] = ok;
+	    });
+	    callers[c].start();
+	}
+	for (Thread caller : callers)
+	    caller.join();
+	map.close();
+
+	for (boolean ok : correct)
+	    Assertions.assertTrue(ok);
+    }
+
+    @Test
+    void TestInterruptedClose() {
+	AsyncMyMap<Integer, Integer> map = new AsyncMyMap<>(MAX_LOAD_FACTOR, 16);
+	map.insert(1, 1);
+
+	Thread.currentThread().interrupt();
+	map.close(); //Returns at once and keeps the flag
+	Assertions.assertTrue(Thread.interrupted());
+
+	map.close();
+	CompletionException e = Assertions.assertThrows(CompletionException.class, map.contains(1)::join);
+	Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+}
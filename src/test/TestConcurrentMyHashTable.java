@@ -0,0 +1,116 @@
+package test;
+
+import interfaces.MyMap;
+import impl.ConcurrentMyHashTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class TestConcurrentMyHashTable {
+
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    @Test
+    void TestInsertDeleteContains() {
+	MyMap<String, Integer> table = new ConcurrentMyHashTable<>(MAX_LOAD_FACTOR);
+
+	for (int i = 0; i < 1000; i++)
+	    table.insert("key" + i, i);
+	for (int i = 0; i < 1000; i += 2)
+	    table.delete("key" + i);
+
+	for (int i = 0; i < 1000; i++) {
+	    if (i % 2 == 0)
+		Assertions.assertNull(table.contains("key" + i));
+	    else
+		Assertions.assertEquals(i, table.contains("key" + i));
+	}
+	Assertions.assertEquals(500, ((ConcurrentMyHashTable<String, Integer>) table).size());
+    }
+
+    @Test
+    void TestConcurrentWriters() throws InterruptedException {
+	ConcurrentMyHashTable<Integer, Integer> table = new ConcurrentMyHashTable<>(MAX_LOAD_FACTOR, 4);
+	List<Thread> threads = new ArrayList<>();
+
+	for (int t = 0; t < 4; t++) {
+	    int first = t * 10000;
+	    Thread writer = new Thread(() -> {
+		for (int i = first; i < first + 10000; i++) {
+		    table.insert(i, i);
+		    Assertions.assertEquals(i, table.contains(i));
+		}
+	    });
+	    threads.add(writer);
+	    writer.start();
+	}
+	for (Thread thread : threads)
+	    thread.join();
+
+	Assertions.assertEquals(40000, table.size());
+	for (int i = 0; i < 40000; i++)
+	    Assertions.assertEquals(i, table.contains(i));
+    }
+
+    @Test
+    void TestConcurrentMerge() throws InterruptedException {
+	ConcurrentMyHashTable<Integer, Integer> table = new ConcurrentMyHashTable<>(MAX_LOAD_FACTOR, 4);
+	List<Thread> threads = new ArrayList<>();
+
+	for (int t = 0; t < 4; t++) {
+	    Thread writer = new Thread(() -> {
+		for (int i = 0; i < 10000; i++)
+		    table.merge(i % 100, 1, Integer::sum);
+	    });
+	    threads.add(writer);
+	    writer.start();
+	}
+	for (Thread thread : threads)
+	    thread.join();
+
+	for (int i = 0; i < 100; i++)
+	    Assertions.assertEquals(400, table.contains(i));
+    }
+
+    @Test
+    void TestIteration() {
+	ConcurrentMyHashTable<Integer, Integer> table = new ConcurrentMyHashTable<>(0.5, 4);
+
+	for (int i = 0; i < 1000; i++)
+	    table.insert(i, i);
+	table.delete(500);
+
+	Assertions.assertEquals(999, table.stream().count());
+	Assertions.assertEquals(999 * 1000 / 2 - 500, table.stream().mapToInt(entry -> entry.getValue()).sum());
+    }
+
+    @Test
+    void TestRandomOperationsInOneSegment() {
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new ConcurrentMyHashTable<Integer, Integer>(0.9, 1));
+
+	ConcurrentMyHashTable<Integer, Integer> table = new ConcurrentMyHashTable<>(0.5, 1);
+	Map<Integer, Integer> expected = new HashMap<>();
+	Random random = new Random(7);
+	for (int i = 0; i < 200000; i++) {
+	    int key = random.nextInt(64);
+	    int operation = random.nextInt(3);
+	    if (operation == 0) {
+		table.insert(key, i);
+		expected.put(key, i);
+	    }
+	    else if (operation == 1) {
+		table.delete(key);
+		expected.remove(key);
+	    }
+	    else
+		Assertions.assertEquals(expected.get(key), table.contains(key));
+	}
+	Assertions.assertEquals(expected.size(), table.size());
+    }
+
+}
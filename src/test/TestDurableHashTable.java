@@ -0,0 +1,125 @@
+package test;
+
+import impl.Codecs;
+import impl.DurableHashTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+class TestDurableHashTable {
+
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    @Test
+    void TestReplayAfterReopen() throws IOException {
+	Path directory = Files.createTempDirectory("durable");
+	try {
+	    try (DurableHashTable<String, Integer> table = new DurableHashTable<>(directory, Codecs.STRING, Codecs.INTEGER, MAX_LOAD_FACTOR)) {
+		for (int i = 0; i < 1000; i++)
+		    table.insert("key" + i, i);
+		for (int i = 0; i < 1000; i += 2)
+		    table.delete("key" + i);
+		table.merge("key1", 10, Integer::sum);
+	    }
+
+	    //A write torn by a crash at the end of the log is dropped
+	    try (Stream<Path> files = Files.list(directory);
+		 FileChannel log = FileChannel.open(files.filter(file -> file.toString().endsWith(".wal")).findFirst().get(), StandardOpenOption.APPEND)) {
+		log.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 20, 1, 2, 3}));
+	    }
+
+	    try (DurableHashTable<String, Integer> table = new DurableHashTable<>(directory, Codecs.STRING, Codecs.INTEGER, MAX_LOAD_FACTOR)) {
+		Assertions.assertEquals(500, table.size());
+		Assertions.assertEquals(11, table.contains("key1"));
+		for (int i = 2; i < 1000; i++)
+		    Assertions.assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), table.contains("key" + i));
+		table.insert("after", 1);
+	    }
+
+	    try (DurableHashTable<String, Integer> table = new DurableHashTable<>(directory, Codecs.STRING, Codecs.INTEGER, MAX_LOAD_FACTOR)) {
+		Assertions.assertEquals(501, table.size());
+		Assertions.assertEquals(1, table.contains("after"));
+	    }
+	}
+	finally {
+	    deleteRecursively(directory);
+	}
+    }
+
+    @Test
+    void TestConcurrentWritersAndCompaction() throws Exception {
+	Path directory = Files.createTempDirectory("durable");
+	try {
+	    try (DurableHashTable<Integer, Integer> table = new DurableHashTable<>(directory, Codecs.INTEGER, Codecs.INTEGER, MAX_LOAD_FACTOR, 4096)) {
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+		    final int first = t * 500;
+		    Thread thread = new Thread(() -> {
+			for (int i = first; i < first + 500; i++)
+			    table.insert(i, -i);
+		    });
+		    threads.add(thread);
+		    thread.start();
+		}
+		for (Thread thread : threads)
+		    thread.join();
+
+		table.compact();
+		Assertions.assertEquals(4000, table.size());
+	    }
+
+	    try (Stream<Path> files = Files.list(directory)) {
+		Assertions.assertEquals(1, files.filter(file -> file.toString().endsWith(".mhs")).count());
+	    }
+
+	    try (DurableHashTable<Integer, Integer> table = new DurableHashTable<>(directory, Codecs.INTEGER, Codecs.INTEGER, MAX_LOAD_FACTOR)) {
+		Assertions.assertEquals(4000, table.size());
+		for (int i = 0; i < 4000; i++)
+		    Assertions.assertEquals(-i, table.contains(i));
+	    }
+	}
+	finally {
+	    deleteRecursively(directory);
+	}
+    }
+
+    @Test
+    void TestReopenWithOtherLoadFactor() throws IOException {
+	Path directory = Files.createTempDirectory("durable");
+	try {
+	    double[] loadFactors = {0.75, 0.5, 0.75};
+	    for (int round = 0; round < loadFactors.length; round++) {
+		try (DurableHashTable<Integer, Integer> table = new DurableHashTable<>(directory, Codecs.INTEGER, Codecs.INTEGER, loadFactors[round])) {
+		    Assertions.assertEquals(1000 * round, table.size());
+		    for (int i = 0; i < 1000 * round; i++)
+			Assertions.assertEquals(-i, table.contains(i));
+
+		    for (int i = 1000 * round; i < 1000 * (round + 1); i++)
+			table.insert(i, -i);
+		    table.compact(); //The next round starts from a snapshot
+		}
+	    }
+	}
+	finally {
+	    deleteRecursively(directory);
+	}
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+	try (Stream<Path> files = Files.walk(directory)) {
+	    for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator)
+		Files.delete(file);
+	}
+    }
+
+}
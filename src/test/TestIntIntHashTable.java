@@ -0,0 +1,62 @@
+package test;
+
+import impl.IntIntHashTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TestIntIntHashTable {
+
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    @Test
+    void TestPutAndGet() {
+	IntIntHashTable table = new IntIntHashTable(MAX_LOAD_FACTOR);
+
+	table.put(7, 70);
+	table.put(-7, -70);
+	table.put(Integer.MIN_VALUE, 1);
+	Assertions.assertEquals(70, table.get(7, 0));
+	Assertions.assertEquals(-70, table.get(-7, 0));
+	Assertions.assertEquals(1, table.get(Integer.MIN_VALUE, 0));
+	Assertions.assertEquals(-1, table.get(8, -1));
+	Assertions.assertFalse(table.containsKey(8));
+    }
+
+    @Test
+    void TestIncrementAcrossRehash() {
+	IntIntHashTable table = new IntIntHashTable(MAX_LOAD_FACTOR);
+
+	for (int round = 0; round < 3; round++)
+	    for (int i = 0; i < 1000; i++)
+		table.increment(i * 31);
+
+	Assertions.assertEquals(1000, table.size());
+	for (int i = 0; i < 1000; i++)
+	    Assertions.assertEquals(3, table.get(i * 31, 0));
+	Assertions.assertTrue(table.getLoadFactor() < MAX_LOAD_FACTOR);
+    }
+
+    @Test
+    void TestSameContent() {
+	IntIntHashTable table1 = new IntIntHashTable(MAX_LOAD_FACTOR);
+	IntIntHashTable table2 = new IntIntHashTable(MAX_LOAD_FACTOR);
+
+	table1.put(1, 2);
+	table1.put(3, 4);
+	table2.put(3, 4);
+	table2.put(1, 2);
+	Assertions.assertTrue(table1.sameContent(table2));
+
+	table2.put(1, 5);
+	Assertions.assertFalse(table1.sameContent(table2));
+    }
+
+    @Test
+    void TestLoadFactorLimit() {
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new IntIntHashTable(0.75));
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new IntIntHashTable(0));
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new IntIntHashTable(1.0));
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new IntIntHashTable(0.75, 100));
+    }
+
+}
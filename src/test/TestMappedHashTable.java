@@ -0,0 +1,102 @@
+package test;
+
+import impl.Codecs;
+import impl.MappedHashTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+class TestMappedHashTable {
+
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    @Test
+    void TestReopenWithoutReinsert() throws IOException {
+	Path file = Files.createTempFile("table", ".mht");
+	Files.delete(file);
+	try {
+	    try (MappedHashTable<String, Integer> table = new MappedHashTable<>(file, Codecs.STRING, Codecs.INTEGER, 16, 4, MAX_LOAD_FACTOR)) {
+		for (int i = 0; i < 1000; i++)
+		    table.insert("key" + i, i);
+		for (int i = 0; i < 1000; i += 2)
+		    table.delete("key" + i);
+		table.insert("key1", -1);
+	    }
+
+	    try (MappedHashTable<String, Integer> table = new MappedHashTable<>(file, Codecs.STRING, Codecs.INTEGER, 16, 4, MAX_LOAD_FACTOR)) {
+		Assertions.assertEquals(500, table.size());
+		Assertions.assertEquals(-1, table.contains("key1"));
+		for (int i = 2; i < 1000; i++) {
+		    if (i % 2 == 0)
+			Assertions.assertNull(table.contains("key" + i));
+		    else
+			Assertions.assertEquals(i, table.contains("key" + i));
+		}
+	    }
+	}
+	finally {
+	    Files.deleteIfExists(file);
+	}
+    }
+
+    @Test
+    void TestKeyWiderThanSlot() throws IOException {
+	Path file = Files.createTempFile("table", ".mht");
+	Files.delete(file);
+	try (MappedHashTable<String, Integer> table = new MappedHashTable<>(file, Codecs.STRING, Codecs.INTEGER, 4, 4, MAX_LOAD_FACTOR)) {
+	    Assertions.assertThrows(IllegalArgumentException.class, () -> table.insert("too long", 1));
+	}
+	finally {
+	    Files.deleteIfExists(file);
+	}
+    }
+
+    @Test
+    void TestRejectsNullValueAndHighLoadFactor() throws IOException {
+	Path file = Files.createTempFile("table", ".mht");
+	Files.delete(file);
+	try {
+	    Assertions.assertThrows(IllegalArgumentException.class,
+		    () -> new MappedHashTable<>(file, Codecs.STRING, Codecs.INTEGER, 16, 4, 0.75));
+	    try (MappedHashTable<String, Integer> table = new MappedHashTable<>(file, Codecs.STRING, Codecs.INTEGER, 16, 4, MAX_LOAD_FACTOR)) {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> table.insert("key", null));
+		Assertions.assertEquals(0, table.size());
+	    }
+	}
+	finally {
+	    Files.deleteIfExists(file);
+	}
+    }
+
+    @Test
+    void TestUnpairedSurrogateKeys() throws IOException {
+	Path file = Files.createTempFile("table", ".mht");
+	Files.delete(file);
+	try {
+	    try (MappedHashTable<String, Integer> table = new MappedHashTable<>(file, Codecs.STRING, Codecs.INTEGER, 16, 4, MAX_LOAD_FACTOR)) {
+		table.insert("a\uD800", 1);
+		table.insert("a?", 2);
+		table.insert("\uDC00\uD800", 3);
+		Assertions.assertEquals(3, table.size());
+	    }
+
+	    try (MappedHashTable<String, Integer> table = new MappedHashTable<>(file, Codecs.STRING, Codecs.INTEGER, 16, 4, MAX_LOAD_FACTOR)) {
+		Assertions.assertEquals(1, table.contains("a\uD800"));
+		Assertions.assertEquals(2, table.contains("a?"));
+		Assertions.assertEquals(3, table.contains("\uDC00\uD800"));
+		Map<String, Integer> entries = new HashMap<>();
+		table.entries().forEachRemaining(entry -> entries.put(entry.getKey(), entry.getValue()));
+		Assertions.assertEquals(1, entries.get("a\uD800"));
+	    }
+	}
+	finally {
+	    Files.deleteIfExists(file);
+	}
+    }
+
+}
@@ -2,9 +2,12 @@ package test;
 
 import interfaces.ArrayMath;
 import impl.MyArrayMathImpl;
+import impl.UTIL;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.ForkJoinPool;
+
 class TestMyArrayMathImpl {
 
     @Test
@@ -45,4 +48,76 @@ class TestMyArrayMathImpl {
 	Assertions.assertTrue(mymath.isSameCollection(mymath.getPercentileRange(array, 10, 50), solution));
     }
 
+    @Test
+    void TestIsSameCollectionCounts() {
+	ArrayMath mymath = new MyArrayMathImpl();
+
+	//Same sums and xors, different elements
+	Assertions.assertFalse(mymath.isSameCollection(new int[] { 0, 3 }, new int[] { 1, 2 }));
+	//Same elements, different multiplicities
+	Assertions.assertFalse(mymath.isSameCollection(new int[] { 1, 1, 2 }, new int[] { 1, 2, 2 }));
+	Assertions.assertTrue(mymath.isSameCollection(new int[0], new int[0]));
+
+	int[] array1 = UTIL.getFilledArray(100000);
+	int[] array2 = array1.clone();
+	for (int i = array2.length - 1; i > 0; i--) {
+	    int j = (i * 7919) % (i + 1);
+	    int temp = array2[i];
+	    array2[i] = array2[j];
+	    array2[j] = temp;
+	}
+	Assertions.assertTrue(mymath.isSameCollection(array1, array2));
+
+	array2[0] = Integer.MIN_VALUE;
+	Assertions.assertFalse(mymath.isSameCollection(array1, array2));
+    }
+
+    @Test
+    void TestIsSameCollectionByTables() {
+	MyArrayMathImpl mymath = new MyArrayMathImpl();
+
+	Assertions.assertFalse(mymath.isSameCollectionByTables(new int[] { 0, 3 }, new int[] { 1, 2 }));
+	Assertions.assertFalse(mymath.isSameCollectionByTables(new int[] { 1, 1, 2 }, new int[] { 1, 2, 2 }));
+	Assertions.assertFalse(mymath.isSameCollectionByTables(new int[] { 1 }, new int[] { 1, 1 }));
+	Assertions.assertTrue(mymath.isSameCollectionByTables(new int[0], new int[0]));
+
+	int[] array1 = UTIL.getFilledArray(10000);
+	int[] array2 = new int[array1.length];
+	for (int i = 0; i < array1.length; i++)
+	    array2[i] = array1[array1.length - 1 - i];
+	Assertions.assertTrue(mymath.isSameCollectionByTables(array1, array2));
+
+	array2[0]++;
+	Assertions.assertFalse(mymath.isSameCollectionByTables(array1, array2));
+    }
+
+    @Test
+    void TestIsSameCollectionParallel() {
+	MyArrayMathImpl mymath = new MyArrayMathImpl();
+	ForkJoinPool pool = new ForkJoinPool(4);
+
+	int[] array1 = UTIL.getFilledArray(300000);
+	int[] array2 = new int[array1.length];
+	for (int i = 0; i < array1.length; i++)
+	    array2[i] = array1[(i + 12345) % array1.length];
+	Assertions.assertTrue(mymath.isSameCollectionParallel(array1, array2, pool));
+
+	//Duplicates in both arrays
+	int[] repeated1 = new int[200000];
+	int[] repeated2 = new int[200000];
+	for (int i = 0; i < repeated1.length; i++) {
+	    repeated1[i] = i % 1000;
+	    repeated2[repeated2.length - 1 - i] = i % 1000;
+	}
+	Assertions.assertTrue(mymath.isSameCollectionParallel(repeated1, repeated2, pool));
+
+	repeated2[0] = repeated2[0] == 5 ? 6 : 5;
+	Assertions.assertFalse(mymath.isSameCollectionParallel(repeated1, repeated2, pool));
+
+	array2[7] = array2[7] + 1;
+	Assertions.assertFalse(mymath.isSameCollectionParallel(array1, array2, pool));
+	Assertions.assertTrue(mymath.isSameCollectionParallel(array1, array1.clone()));
+	pool.shutdown();
+    }
+
 }
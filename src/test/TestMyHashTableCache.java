@@ -0,0 +1,91 @@
+package test;
+
+import impl.MyHashTableCache;
+import impl.PowerOfTwoHashStrategy;
+import impl.PrimeHashStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TestMyHashTableCache {
+
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    @Test
+    void TestBoundedSize() {
+	MyHashTableCache<Integer, Integer> cache = new MyHashTableCache<>(100, MAX_LOAD_FACTOR);
+	int length = cache.getLengthOfArray();
+
+	for (int i = 0; i < 10000; i++)
+	    cache.insert(i, i * 2);
+
+	Assertions.assertEquals(100, cache.size());
+	Assertions.assertEquals(9900, cache.getEvictions());
+	Assertions.assertEquals(length, cache.getLengthOfArray());
+	int cached = 0;
+	for (int i = 0; i < 10000; i++) {
+	    Integer value = cache.contains(i);
+	    if (value != null) {
+		Assertions.assertEquals(i * 2, value);
+		cached++;
+	    }
+	}
+	Assertions.assertEquals(100, cached);
+	Assertions.assertEquals(19998, cache.contains(9999));
+    }
+
+    @Test
+    void TestReferencedKeysSurvive() {
+	MyHashTableCache<Integer, String> cache = new MyHashTableCache<>(10, MAX_LOAD_FACTOR, new PowerOfTwoHashStrategy());
+
+	for (int i = 0; i < 10; i++)
+	    cache.insert(i, "v" + i);
+	for (int round = 0; round < 50; round++) {
+	    Assertions.assertEquals("v0", cache.contains(0)); //Keep the first key hot
+	    cache.insert(100 + round, "new");
+	}
+
+	Assertions.assertEquals(10, cache.size());
+	Assertions.assertEquals("v0", cache.contains(0));
+    }
+
+    @Test
+    void TestCounters() {
+	MyHashTableCache<String, Integer> cache = new MyHashTableCache<>(2, MAX_LOAD_FACTOR);
+
+	cache.insert("a", 1);
+	cache.insert("b", 2);
+	Assertions.assertEquals(1, cache.contains("a"));
+	Assertions.assertNull(cache.contains("c"));
+	cache.insert("c", 3); //Evicts "b", "a" was read
+	Assertions.assertNull(cache.contains("b"));
+	cache.delete("a");
+	Assertions.assertNull(cache.contains("a"));
+
+	Assertions.assertEquals(1, cache.getHits());
+	Assertions.assertEquals(3, cache.getMisses());
+	Assertions.assertEquals(1, cache.getEvictions());
+	Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    void TestHighLoadFactor() {
+	for (int maxEntries : new int[]{1, 7, 100}) {
+	    MyHashTableCache<Integer, Integer> cache = new MyHashTableCache<>(maxEntries, 0.75);
+	    for (int i = 0; i < 10000; i++) {
+		cache.insert(i, i);
+		if (i % 3 == 0)
+		    cache.delete(i - 1);
+		Assertions.assertEquals(i, cache.contains(i));
+	    }
+	    Assertions.assertTrue(cache.size() <= maxEntries);
+	}
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new MyHashTableCache<>(10, 0.75, new PrimeHashStrategy()));
+    }
+
+    @Test
+    void TestTooManyEntries() {
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new MyHashTableCache<Integer, Integer>(600000000, MAX_LOAD_FACTOR));
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new MyHashTableCache<Integer, Integer>(Integer.MAX_VALUE, 0.75));
+    }
+
+}
@@ -1,11 +1,30 @@
 package test;
 
 import interfaces.ArrayWithPublishedSize;
+import interfaces.HashStrategy;
 import interfaces.MyMap;
+import impl.Codecs;
+import impl.FrozenHashTable;
+import impl.HashTableStats;
 import impl.MyHashTableImpl;
+import impl.PowerOfTwoHashStrategy;
+import impl.PrimeHashStrategy;
+import impl.SeededHashStrategy;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
 class TestMyHashTableImpl {
 
     private static final double MAX_LOAD_FACTOR = 0.75;
@@ -40,4 +59,456 @@ class TestMyHashTableImpl {
 
     }
 
+    @Test
+    void TestIncrementalRehash() {
+	MyMap<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.5, true);
+
+	for (int i = 0; i < 2000; i++) {
+	    table.insert(i, i);
+	    if (i % 3 == 0)
+		table.delete(i / 2);
+	    if (i % 5 == 0)
+		table.insert(i / 4, -i);
+	}
+
+	Map<Integer, Integer> expected = new HashMap<>();
+	for (int i = 0; i < 2000; i++) {
+	    expected.put(i, i);
+	    if (i % 3 == 0)
+		expected.remove(i / 2);
+	    if (i % 5 == 0)
+		expected.put(i / 4, -i);
+	}
+
+	for (int i = 0; i < 2000; i++)
+	    Assertions.assertEquals(expected.get(i), table.contains(i));
+    }
+
+    @Test
+    void TestDeleteKeepsCollidingKeys() {
+	MyMap<String, String> dictionary = new MyHashTableImpl<String, String>(0.5);
+
+	//"Aa", "BB" and "AaBB"/"BBAa" pairs share hash codes
+	dictionary.insert("Aa", "1");
+	dictionary.insert("BB", "2");
+	dictionary.insert("AaBB", "3");
+	dictionary.insert("BBAa", "4");
+	dictionary.delete("Aa");
+	dictionary.delete("AaBB");
+
+	Assertions.assertNull(dictionary.contains("Aa"));
+	Assertions.assertEquals("2", dictionary.contains("BB"));
+	Assertions.assertNull(dictionary.contains("AaBB"));
+	Assertions.assertEquals("4", dictionary.contains("BBAa"));
+
+	dictionary.insert("Aa", "5");
+	Assertions.assertEquals("5", dictionary.contains("Aa"));
+    }
+
+    @Test
+    void TestDeleteHeavyWorkload() {
+	MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.5);
+	Map<Integer, Integer> expected = new HashMap<>();
+	Random random = new Random(42);
+
+	for (int i = 0; i < 100000; i++) {
+	    int key = random.nextInt(2000) * 13;
+	    if (random.nextInt(3) == 0) {
+		table.delete(key);
+		expected.remove(key);
+	    }
+	    else {
+		table.insert(key, i);
+		expected.put(key, i);
+	    }
+	}
+
+	for (int key = 0; key < 2000 * 13; key += 13)
+	    Assertions.assertEquals(expected.get(key), table.contains(key));
+	Assertions.assertTrue(table.getLengthOfArray() < 2000 * 4 / 0.5);
+    }
+
+    @Test
+    void TestUpsert() {
+	MyMap<String, Integer> counts = new MyHashTableImpl<String, Integer>(0.5);
+
+	for (String word : new String[]{"a", "b", "a", "c", "a", "b"})
+	    counts.merge(word, 1, Integer::sum);
+	Assertions.assertEquals(3, counts.contains("a"));
+	Assertions.assertEquals(2, counts.contains("b"));
+	Assertions.assertEquals(1, counts.contains("c"));
+
+	Assertions.assertEquals(0, counts.getOrDefault("d", 0));
+	Assertions.assertNull(counts.putIfAbsent("d", 4));
+	Assertions.assertEquals(4, counts.putIfAbsent("d", 5));
+
+	Assertions.assertEquals(6, counts.compute("d", (key, value) -> value + 2));
+	Assertions.assertNull(counts.compute("c", (key, value) -> null));
+	Assertions.assertNull(counts.contains("c"));
+	Assertions.assertNull(counts.merge("b", 1, (value, one) -> null));
+	Assertions.assertNull(counts.contains("b"));
+    }
+
+    @Test
+    void TestHashStrategies() {
+	for (HashStrategy strategy : new HashStrategy[]{new PrimeHashStrategy(), new PowerOfTwoHashStrategy()}) {
+	    MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.5, strategy);
+
+	    table.insert(Integer.MIN_VALUE, 1); //Its absolute value is still negative
+	    for (int i = 0; i < 1000; i++)
+		table.insert(i << 16, i); //Differ only in the upper bits
+
+	    Assertions.assertEquals(1, table.contains(Integer.MIN_VALUE));
+	    for (int i = 0; i < 1000; i++)
+		Assertions.assertEquals(i, table.contains(i << 16));
+	    Assertions.assertEquals(strategy.capacityFor(table.getLengthOfArray()), table.getLengthOfArray());
+	}
+    }
+
+    @Test
+    void TestStrategyLoadFactorLimit() {
+	PrimeHashStrategy prime = new PrimeHashStrategy();
+	int length = 2147483629; //Largest prime below Integer.MAX_VALUE
+	Assertions.assertEquals((int) ((length - 1 + 2L * 1000 - 1) % length), prime.nextProbe(length - 1, 1000, length));
+
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new MyHashTableImpl<Integer, Integer>(0.75, prime));
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new MyHashTableImpl<Integer, Integer>(0.75, new SeededHashStrategy(prime)));
+
+	MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.9);
+	for (int i = 0; i < 10000; i++)
+	    table.insert(i, i);
+	for (int i = 0; i < 10000; i++)
+	    Assertions.assertEquals(i, table.contains(i));
+    }
+
+    @Test
+    void TestStatistics() throws Exception {
+	MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.5);
+	HashTableStats stats = table.enableStatistics();
+
+	for (int i = 0; i < 1000; i++)
+	    table.insert(i, i);
+	for (int i = 0; i < 1000; i++)
+	    table.contains(i);
+
+	Assertions.assertEquals(2000, stats.getProbes());
+	Assertions.assertTrue(stats.getRehashCount() > 0);
+	Assertions.assertEquals(1000, stats.getSize());
+	long histogramTotal = 0;
+	for (long count : stats.getProbeLengthHistogram())
+	    histogramTotal += count;
+	Assertions.assertEquals(2000, histogramTotal);
+
+	stats.register("TestStatistics");
+	try {
+	    ObjectName name = new ObjectName("impl:type=MyHashTableImpl,name=" + ObjectName.quote("TestStatistics"));
+	    Assertions.assertEquals(1000, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Size"));
+	}
+	finally {
+	    stats.unregister();
+	}
+    }
+
+    @Test
+    void TestShrinkOnDelete() {
+	MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.5, new PowerOfTwoHashStrategy());
+	table.setMinLoadFactor(0.1);
+	HashTableStats stats = table.enableStatistics();
+
+	for (int i = 0; i < 10000; i++)
+	    table.insert(i, i);
+	int grownLength = table.getLengthOfArray();
+	for (int i = 0; i < 9990; i++)
+	    table.delete(i);
+
+	Assertions.assertEquals(10, table.size());
+	Assertions.assertTrue(table.getLengthOfArray() < grownLength / 100);
+	for (int i = 9990; i < 10000; i++)
+	    Assertions.assertEquals(i, table.contains(i));
+
+	//Oscillating around the thresholds must not resize on every operation
+	stats.reset();
+	for (int round = 0; round < 1000; round++) {
+	    table.insert(-1, -1);
+	    table.delete(-1);
+	}
+	Assertions.assertTrue(stats.getRehashCount() <= 2);
+	Assertions.assertThrows(IllegalArgumentException.class, () -> table.setMinLoadFactor(0.25));
+    }
+
+    @Test
+    void TestTrimAndEnsureCapacity() {
+	MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.5, true);
+
+	table.ensureCapacity(1000);
+	int length = table.getLengthOfArray();
+	Assertions.assertTrue(length > 2000);
+	for (int i = 0; i < 1000; i++)
+	    table.insert(i, i);
+	Assertions.assertEquals(length, table.getLengthOfArray());
+
+	for (int i = 0; i < 900; i++)
+	    table.delete(i);
+	table.trimToSize();
+	Assertions.assertTrue(table.getLengthOfArray() < 300);
+	Assertions.assertEquals(100, table.size());
+	for (int i = 900; i < 1000; i++)
+	    Assertions.assertEquals(i, table.contains(i));
+	Assertions.assertNull(table.contains(0));
+    }
+
+    @Test
+    void TestBatchOperations() {
+	MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.5, 1000);
+	HashTableStats stats = table.enableStatistics();
+	int length = table.getLengthOfArray();
+
+	Integer[] keys = new Integer[1000];
+	Integer[] values = new Integer[1000];
+	for (int i = 0; i < 1000; i++) {
+	    keys[i] = i;
+	    values[i] = -i;
+	}
+	table.insertAll(keys, values);
+
+	Assertions.assertEquals(1000, table.size());
+	Assertions.assertEquals(length, table.getLengthOfArray());
+	Assertions.assertEquals(0, stats.getRehashCount());
+
+	Integer[] lookedUp = new Integer[2000];
+	for (int i = 0; i < 2000; i++)
+	    lookedUp[i] = i;
+	Integer[] out = new Integer[2000];
+	Assertions.assertEquals(1000, table.containsAll(lookedUp, out));
+	for (int i = 0; i < 2000; i++)
+	    Assertions.assertEquals(i < 1000 ? Integer.valueOf(-i) : null, out[i]);
+
+	Assertions.assertThrows(IllegalArgumentException.class, () -> table.insertAll(keys, new Integer[1]));
+	Assertions.assertThrows(IllegalArgumentException.class, () -> table.containsAll(keys, new Integer[1]));
+
+	Integer[] moreKeys = new Integer[3000];
+	for (int i = 0; i < 3000; i++)
+	    moreKeys[i] = 1000 + i;
+	table.insertAll(moreKeys, moreKeys); //Grows once for the existing and the new keys
+	Assertions.assertEquals(4000, table.size());
+	Assertions.assertEquals(1, stats.getRehashCount());
+    }
+
+    @Test
+    void TestIteration() {
+	MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.5, true);
+
+	for (int i = 0; i < 100000; i++)
+	    table.insert(i, 2 * i);
+	for (int i = 0; i < 100000; i += 2)
+	    table.delete(i);
+
+	long expected = 0;
+	for (int i = 1; i < 100000; i += 2)
+	    expected += 2 * i;
+
+	Assertions.assertEquals(expected, table.stream().parallel().mapToLong(entry -> entry.getValue()).sum());
+	Assertions.assertEquals(50000, table.stream().parallel().filter(entry -> entry.getValue() == 2 * entry.getKey()).count());
+
+	long[] sum = new long[1];
+	table.forEach((key, value) -> sum[0] += value);
+	Assertions.assertEquals(expected, sum[0]);
+
+	int keys = 0;
+	for (Iterator<Integer> iterator = table.keys(); iterator.hasNext(); keys++)
+	    Assertions.assertEquals(1, iterator.next() % 2);
+	Assertions.assertEquals(50000, keys);
+
+	Iterator<Map.Entry<Integer, Integer>> entries = table.entries();
+	Map<Integer, Integer> copy = new HashMap<>();
+	while (entries.hasNext()) {
+	    Map.Entry<Integer, Integer> entry = entries.next();
+	    copy.put(entry.getKey(), entry.getValue());
+	}
+	Assertions.assertEquals(50000, copy.size());
+	Assertions.assertEquals(6, copy.get(3));
+    }
+
+    @Test
+    void TestSnapshot() throws IOException {
+	Path file = Files.createTempFile("table", ".mhs");
+	try {
+	    for (HashStrategy strategy : new HashStrategy[] {new PrimeHashStrategy(), new PowerOfTwoHashStrategy()}) {
+		MyHashTableImpl<String, Integer> table = new MyHashTableImpl<String, Integer>(0.5, strategy);
+		for (int i = 0; i < 100000; i++)
+		    table.insert("key" + i, i);
+		for (int i = 0; i < 100000; i += 3)
+		    table.delete("key" + i);
+		table.insert("null", null);
+		table.save(file, Codecs.STRING, Codecs.INTEGER);
+
+		MyHashTableImpl<String, Integer> loaded = MyHashTableImpl.load(file, Codecs.STRING, Codecs.INTEGER, strategy);
+		Assertions.assertEquals(table.size(), loaded.size());
+		Assertions.assertEquals(table.getLengthOfArray(), loaded.getLengthOfArray());
+		for (int i = 0; i < 100000; i++)
+		    Assertions.assertEquals(i % 3 == 0 ? null : Integer.valueOf(i), loaded.contains("key" + i));
+		Assertions.assertNull(loaded.contains("null"));
+
+		loaded.insert("key0", 0); //The loaded table keeps working
+		Assertions.assertEquals(0, loaded.contains("key0"));
+	    }
+
+	    Assertions.assertThrows(IOException.class, () -> MyHashTableImpl.load(file, Codecs.STRING, Codecs.INTEGER));
+	}
+	finally {
+	    Files.deleteIfExists(file);
+	}
+    }
+
+    @Test
+    void TestSnapshotDefaultStrategy() throws IOException {
+	Path file = Files.createTempFile("table", ".mhs");
+	try {
+	    for (double loadFactor : new double[] {0.5, 0.75}) {
+		MyHashTableImpl<String, Integer> table = new MyHashTableImpl<String, Integer>(loadFactor);
+		for (int i = 0; i < 1000; i++)
+		    table.insert("key" + i, i);
+		table.insert("a\uD800", -1); //Unpaired surrogate, must not come back as "a?"
+		table.insert("a?", -2);
+		table.save(file, Codecs.STRING, Codecs.INTEGER);
+
+		MyHashTableImpl<String, Integer> loaded = MyHashTableImpl.load(file, Codecs.STRING, Codecs.INTEGER);
+		Assertions.assertEquals(1002, loaded.size());
+		for (int i = 0; i < 1000; i++)
+		    Assertions.assertEquals(i, loaded.contains("key" + i));
+		Assertions.assertEquals(-1, loaded.contains("a\uD800"));
+		Assertions.assertEquals(-2, loaded.contains("a?"));
+	    }
+	}
+	finally {
+	    Files.deleteIfExists(file);
+	}
+    }
+
+    @Test
+    void TestSeededHashing() {
+	//2^12 strings sharing one String.hashCode, "Aa" and "BB" collide
+	String[] colliding = new String[1 << 12];
+	for (int i = 0; i < colliding.length; i++) {
+	    StringBuilder key = new StringBuilder();
+	    for (int bit = 0; bit < 12; bit++)
+		key.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+	    colliding[i] = key.toString();
+	}
+	Assertions.assertEquals(colliding[0].hashCode(), colliding[colliding.length - 1].hashCode());
+
+	SeededHashStrategy strategy = new SeededHashStrategy(new PrimeHashStrategy());
+	Set<Integer> hashes = new HashSet<>();
+	for (String key : colliding)
+	    hashes.add(strategy.hash(key));
+	Assertions.assertTrue(hashes.size() > colliding.length - 10);
+
+	MyHashTableImpl<String, Integer> table = new MyHashTableImpl<String, Integer>(0.5, strategy);
+	HashTableStats stats = table.enableStatistics();
+	for (int i = 0; i < colliding.length; i++)
+	    table.insert(colliding[i], i);
+	for (int i = 0; i < colliding.length; i++)
+	    Assertions.assertEquals(i, table.contains(colliding[i]));
+	Assertions.assertTrue(stats.getMaxProbeLength() < 64);
+    }
+
+    @Test
+    void TestReseedOnLongProbes() {
+	//Hashes every key to 0 until reseeded, like keys crafted for a known seed
+	HashStrategy flooded = new HashStrategy() {
+	    public int hash(Object key) {
+		return 0;
+	    }
+
+	    public int capacityFor(int minLength) {
+		return new PowerOfTwoHashStrategy().capacityFor(minLength);
+	    }
+
+	    public int indexFor(int hash, int length) {
+		return hash & (length - 1);
+	    }
+
+	    public int nextProbe(int position, int step, int length) {
+		return (position + step) & (length - 1);
+	    }
+
+	    public HashStrategy reseed() {
+		return new PowerOfTwoHashStrategy();
+	    }
+	};
+
+	MyHashTableImpl<Integer, Integer> table = new MyHashTableImpl<Integer, Integer>(0.5, true, flooded);
+	for (int i = 0; i < 1000; i++)
+	    table.insert(i, i);
+
+	HashTableStats stats = table.enableStatistics();
+	for (int i = 0; i < 1000; i++)
+	    Assertions.assertEquals(i, table.contains(i));
+	Assertions.assertTrue(stats.getMaxProbeLength() < 64);
+    }
+
+    @Test
+    void TestFreeze() {
+	MyHashTableImpl<String, Integer> table = new MyHashTableImpl<String, Integer>(0.5);
+	for (int i = 0; i < 100000; i++)
+	    table.insert("key" + i, i);
+	table.insert("Aa", -1); //"Aa" and "BB" share a hashCode
+	table.insert("BB", -2);
+
+	FrozenHashTable<String, Integer> frozen = table.freeze();
+	table.delete("key0");
+
+	Assertions.assertEquals(100002, frozen.size());
+	Assertions.assertTrue(frozen.getLengthOfArray() >= 100001);
+	for (int i = 0; i < 100000; i++)
+	    Assertions.assertEquals(i, frozen.contains("key" + i));
+	Assertions.assertEquals(-1, frozen.contains("Aa"));
+	Assertions.assertEquals(-2, frozen.contains("BB"));
+	Assertions.assertNull(frozen.contains("missing"));
+	Assertions.assertEquals(100002, frozen.stream().count());
+	Assertions.assertThrows(UnsupportedOperationException.class, () -> frozen.insert("key", 0));
+
+	Assertions.assertNull(new MyHashTableImpl<String, Integer>(0.5).freeze().contains("key"));
+    }
+
+    @Test
+    void TestBloomFilter() {
+	MyHashTableImpl<String, Integer> table = new MyHashTableImpl<String, Integer>(0.5, true);
+	table.enableBloomFilter();
+	HashTableStats stats = table.enableStatistics();
+
+	for (int i = 0; i < 10000; i++)
+	    table.insert("key" + i, i);
+	for (int i = 0; i < 10000; i += 2)
+	    table.delete("key" + i);
+
+	stats.reset();
+	for (int i = 0; i < 10000; i++)
+	    Assertions.assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), table.contains("key" + i));
+	for (int i = 0; i < 10000; i++)
+	    Assertions.assertNull(table.contains("missing" + i));
+
+	//Present keys probe the table, almost all misses stop at the filter
+	Assertions.assertTrue(stats.getProbes() < 10000 + 5000 + 500);
+    }
+
+    @Test
+    void TestCompareToIgnoresLayout() {
+	MyHashTableImpl<Integer, Integer> small = new MyHashTableImpl<Integer, Integer>(0.5);
+	MyHashTableImpl<Integer, Integer> large = new MyHashTableImpl<Integer, Integer>(0.5, 100000);
+	for (int i = 0; i < 1000; i++) {
+	    small.insert(i, -i);
+	    large.insert(999 - i, i - 999);
+	}
+	Assertions.assertTrue(small.getLengthOfArray() < large.getLengthOfArray());
+	Assertions.assertEquals(0, small.compareTo(large));
+	Assertions.assertEquals(0, large.compareTo(small));
+
+	large.insert(500, 1);
+	Assertions.assertEquals(1, small.compareTo(large));
+	large.insert(500, -500);
+	large.insert(1000, -1000);
+	Assertions.assertEquals(1, small.compareTo(large));
+    }
+
 }
@@ -0,0 +1,60 @@
+package test;
+
+import impl.ShardedMyMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TestShardedMyMap {
+
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    @Test
+    void TestInsertDeleteContains() {
+	ShardedMyMap<String, Integer> map = new ShardedMyMap<>(MAX_LOAD_FACTOR, 4);
+
+	for (int i = 0; i < 10000; i++)
+	    map.insert("key" + i, i);
+	for (int i = 0; i < 10000; i += 2)
+	    map.delete("key" + i);
+
+	Assertions.assertEquals(5000, map.size());
+	for (int i = 0; i < 10000; i++)
+	    Assertions.assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), map.contains("key" + i));
+	for (int shard = 0; shard < 4; shard++)
+	    Assertions.assertTrue(map.shardSize(shard) > 500);
+    }
+
+    @Test
+    void TestAddAndRemoveShards() {
+	ShardedMyMap<Integer, Integer> map = new ShardedMyMap<>(MAX_LOAD_FACTOR, 8);
+	for (int i = 0; i < 90000; i++)
+	    map.insert(i, -i);
+
+	int[] before = new int[8];
+	for (int shard = 0; shard < 8; shard++)
+	    before[shard] = map.shardSize(shard);
+
+	int added = map.addShard();
+	Assertions.assertEquals(8, added);
+	Assertions.assertEquals(90000, map.size());
+
+	//Only keys moving to the new shard leave the old ones, about 1/9 of all keys
+	int moved = map.shardSize(added);
+	Assertions.assertTrue(moved > 5000 && moved < 20000);
+	int left = 0;
+	for (int shard = 0; shard < 8; shard++) {
+	    Assertions.assertTrue(map.shardSize(shard) <= before[shard]);
+	    left += before[shard] - map.shardSize(shard);
+	}
+	Assertions.assertEquals(moved, left);
+
+	map.removeShard(3);
+	Assertions.assertEquals(8, map.getShardCount());
+	Assertions.assertEquals(0, map.shardSize(3));
+	Assertions.assertEquals(90000, map.size());
+	for (int i = 0; i < 90000; i++)
+	    Assertions.assertEquals(-i, map.contains(i));
+	Assertions.assertEquals(90000, map.stream().count());
+    }
+
+}
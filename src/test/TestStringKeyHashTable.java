@@ -0,0 +1,90 @@
+package test;
+
+import impl.PrimeHashStrategy;
+import impl.StringKeyHashTable;
+import impl.UTIL;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+class TestStringKeyHashTable {
+
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    @Test
+    void TestInsertDeleteContains() {
+	StringKeyHashTable<Integer> table = new StringKeyHashTable<>(MAX_LOAD_FACTOR);
+	Map<String, Integer> expected = new HashMap<>();
+	String[] keys = UTIL.getKeys();
+
+	for (int round = 0; round < 50; round++) {
+	    for (int i = 0; i < keys.length; i++) {
+		String key = keys[i] + round;
+		table.insert(key, i);
+		expected.put(key, i);
+	    }
+	    for (int i = round % 2; i < keys.length; i += 2) {
+		table.delete(keys[i] + round);
+		expected.remove(keys[i] + round);
+	    }
+	}
+
+	Assertions.assertEquals(expected.size(), table.size());
+	for (int round = 0; round < 50; round++) {
+	    for (String city : keys) {
+		String key = city + round;
+		Assertions.assertEquals(expected.get(key), table.contains(key));
+		Assertions.assertEquals(expected.get(key), table.contains(new StringBuilder(key)));
+		byte[] utf8 = ("#" + key).getBytes(StandardCharsets.UTF_8);
+		Assertions.assertEquals(expected.get(key), table.contains(utf8, 1, utf8.length - 1));
+	    }
+	}
+
+	Map<String, Integer> iterated = new HashMap<>();
+	table.forEach(iterated::put);
+	Assertions.assertEquals(expected, iterated);
+    }
+
+    @Test
+    void TestNonAsciiKeys() {
+	StringKeyHashTable<String> table = new StringKeyHashTable<>(MAX_LOAD_FACTOR);
+	String[] keys = { "", "Z\u00FCrich", "Malm\u00F6", "\u6771\u4EAC", "emoji \uD83D\uDE00" };
+	for (String key : keys)
+	    table.insert(key, key);
+
+	for (String key : keys) {
+	    Assertions.assertEquals(key, table.contains(key));
+	    byte[] utf8 = key.getBytes(StandardCharsets.UTF_8);
+	    Assertions.assertEquals(key, table.contains(utf8, 0, utf8.length));
+	}
+	Assertions.assertNull(table.contains("Zurich"));
+	Assertions.assertNull(table.contains("\u6771"));
+
+	table.insert("Malm\u00F6", "updated");
+	Assertions.assertEquals(keys.length, table.size());
+	Assertions.assertEquals("updated", table.contains(new StringBuilder("Malm").append('\u00F6')));
+    }
+
+    @Test
+    void TestUnpairedSurrogates() {
+	StringKeyHashTable<String> table = new StringKeyHashTable<>(MAX_LOAD_FACTOR);
+	String[] keys = { "lone \uD800 high", "lone \uDC00 high", "lone ? high", "\uDBFF", "\uDC00\uD800", "\uD800\uDC00" };
+	for (String key : keys)
+	    table.insert(key, key);
+
+	Assertions.assertEquals(keys.length, table.size());
+	for (String key : keys)
+	    Assertions.assertEquals(key, table.contains(key));
+
+	Map<String, String> decoded = new HashMap<>();
+	table.entries().forEachRemaining(entry -> decoded.put(entry.getKey(), entry.getValue()));
+	for (String key : keys)
+	    Assertions.assertEquals(key, decoded.get(key));
+
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new StringKeyHashTable<String>(0.75, new PrimeHashStrategy()));
+    }
+
+}
@@ -0,0 +1,116 @@
+package test;
+
+import impl.PrimeHashStrategy;
+import impl.VersionedHashTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+class TestVersionedHashTable {
+
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    @Test
+    void TestSnapshotIsolation() {
+	VersionedHashTable<Integer, String> table = new VersionedHashTable<>(MAX_LOAD_FACTOR);
+	for (int i = 0; i < 5000; i++)
+	    table.insert(i, "a" + i);
+
+	VersionedHashTable.Snapshot<Integer, String> first = table.snapshot();
+	Assertions.assertSame(first, table.snapshot());
+
+	//Overwrites, deletes and enough inserts to grow the table
+	for (int i = 0; i < 5000; i += 2)
+	    table.insert(i, "b" + i);
+	for (int i = 1; i < 5000; i += 2)
+	    table.delete(i);
+	for (int i = 5000; i < 20000; i++)
+	    table.insert(i, "c" + i);
+	VersionedHashTable.Snapshot<Integer, String> second = table.snapshot();
+
+	Assertions.assertEquals(5000, first.size());
+	Assertions.assertEquals(17500, second.size());
+	Assertions.assertTrue(second.getVersion() > first.getVersion());
+	for (int i = 0; i < 20000; i++) {
+	    Assertions.assertEquals(i < 5000 ? "a" + i : null, first.contains(i));
+	    String expected = i >= 5000 ? "c" + i : (i % 2 == 0 ? "b" + i : null);
+	    Assertions.assertEquals(expected, second.contains(i));
+	    Assertions.assertEquals(expected, table.contains(i));
+	}
+	Assertions.assertEquals(5000, first.stream().count());
+	Assertions.assertThrows(UnsupportedOperationException.class, () -> first.insert(1, "x"));
+    }
+
+    @Test
+    void TestConcurrentReaders() throws InterruptedException {
+	VersionedHashTable<Integer, Integer> table = new VersionedHashTable<>(MAX_LOAD_FACTOR);
+	AtomicReference<VersionedHashTable.Snapshot<Integer, Integer>> published = new AtomicReference<>(table.snapshot());
+	AtomicBoolean done = new AtomicBoolean(false);
+	AtomicBoolean consistent = new AtomicBoolean(true);
+
+	//Every snapshot holds the same value for all keys it contains
+	Thread[] readers = new Thread[4];
+	for (int r = 0; r < readers.length; r++) {
+	    readers[r] = new Thread(() -> {
+		while (!done.get()) {
+		    VersionedHashTable.Snapshot<Integer, Integer> snapshot = published.get();
+		    Integer first = snapshot.contains(0);
+		    for (int i = 0; i < snapshot.size(); i++) {
+			if (!Objects.equals(first, snapshot.contains(i)))
+			    consistent.set(false);
+		    }
+		}
+	    });
+	    readers[r].start();
+	}
+
+	for (int round = 0; round < 200; round++) {
+	    for (int i = 0; i < 2000; i++)
+		table.insert(i, round);
+	    published.set(table.snapshot());
+	}
+	done.set(true);
+	for (Thread reader : readers)
+	    reader.join();
+
+	Assertions.assertTrue(consistent.get());
+	Assertions.assertEquals(199, published.get().contains(1999));
+    }
+
+    @Test
+    void TestHighLoadFactor() {
+	for (double loadFactor : new double[]{0.75, 0.9}) {
+	    VersionedHashTable<Integer, Integer> table = new VersionedHashTable<>(loadFactor);
+	    Map<Integer, Integer> expected = new HashMap<>();
+	    Random random = new Random(42);
+	    VersionedHashTable.Snapshot<Integer, Integer> snapshot = null;
+
+	    for (int i = 0; i < 50000; i++) {
+		int key = random.nextInt(5000);
+		if (random.nextInt(3) == 0) {
+		    table.delete(key);
+		    expected.remove(key);
+		}
+		else {
+		    table.insert(key, i);
+		    expected.put(key, i);
+		}
+		if (i == 25000)
+		    snapshot = table.snapshot();
+	    }
+
+	    Assertions.assertEquals(expected.size(), table.size());
+	    for (int key = 0; key < 5000; key++)
+		Assertions.assertEquals(expected.get(key), table.contains(key));
+	    Assertions.assertTrue(snapshot.size() > 0);
+	}
+	Assertions.assertThrows(IllegalArgumentException.class, () -> new VersionedHashTable<Integer, Integer>(0.75, new PrimeHashStrategy()));
+    }
+
+}